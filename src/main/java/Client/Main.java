@@ -1,13 +1,21 @@
 package Client;
 
 import Client.collection.CustomUserCollection;
+import Client.collection.VersionedUserCollection;
 import Client.model.User;
+import Client.service.file.FileFollower;
+import Client.service.file.FileReaderService;
 import Client.service.file.FileSaverService;
+import Client.service.file.ShardedUserFiles;
+import Client.service.file.UserFileCompactor;
+import Client.service.file.UserFileIndex;
 import Client.service.filler.*;
 import Client.service.thread.UserCounterService;
+import Client.service.stream.UserNameIndex;
 import Client.service.stream.UserStreamProcessor;
 import Client.strategy.*;
 
+import java.io.IOException;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -16,10 +24,15 @@ import java.util.function.ToIntFunction;
 
 public class Main {
 
+    private static final int PAGE_SIZE = 20;
+    // Сколько пользователей выводится после массовой генерации
+    private static final int PREVIEW_ROWS = 10;
+
     private static final Scanner scanner = new Scanner(System.in);
-    private static CustomUserCollection userCollection = new CustomUserCollection();
+    private static final VersionedUserCollection userStore = new VersionedUserCollection();
     private static SortStrategy currentStrategy = new InsertionSort();
     private static final FileSaverService fileSaver = new FileSaverService();
+    private static FileFollower follower;
     private static final UserCounterService counterService = new UserCounterService();
     private static final UserStreamProcessor streamProcessor = new UserStreamProcessor();
 
@@ -41,8 +54,18 @@ public class Main {
                 case 7 -> saveUsers();
                 case 8 -> countUserOccurrences();
                 case 9 -> demonstrateStreamOperations();
+                case 10 -> fillUsers(new MappedFileFiller());
+                case 11 -> fillUsers(new BinaryFileFiller());
+                case 12 -> compactFile();
+                case 13 -> followFile();
+                case 14 -> fillFromShards();
+                case 15 -> browseFile();
+                case 16 -> fillDistinct();
+                case 17 -> generateBulk();
                 case 0 -> {
                     System.out.println(" Выход из программы...");
+                    fileSaver.shutdown();
+                    stopFollowing();
                     return;
                 }
                 default -> System.out.println(" Неверный пункт меню.");
@@ -63,6 +86,14 @@ public class Main {
         System.out.println("7.  Сохранить в файл");
         System.out.println("8.  Подсчитать вхождения пользователя (многопоточно)");
         System.out.println("9.  Демонстрация Stream операций");
+        System.out.println("10. Загрузить большой файл (параллельно, mmap)");
+        System.out.println("11. Загрузить из бинарного файла");
+        System.out.println("12. Компактировать файл с дописываниями");
+        System.out.println("13. Следить за файлом (подгружать дописанные строки)");
+        System.out.println("14. Загрузить шардированный экспорт (параллельно)");
+        System.out.println("15. Просмотреть файл постранично (индекс строк)");
+        System.out.println("16. Загрузить файл без дубликатов");
+        System.out.println("17. Массовая генерация (параллельно, по seed)");
         System.out.println("0.  Выход");
         System.out.print(" Выберите пункт: ");
     }
@@ -76,12 +107,50 @@ public class Main {
     }
 
     private static void fillUsers(Filler filler) {
-        List<User> newUsers = filler.fill(0);
+        publishLoaded(filler.fill(0));
+    }
+
+    private static void fillFromShards() {
+        System.out.print(" Введите путь экспорта (без .part-NNNN): ");
+        String basePath = scanner.nextLine().trim();
+        publishLoaded(new FileFiller().fillFromShards(basePath));
+    }
+
+    private static void fillDistinct() {
+        System.out.print(" Введите путь к файлу: ");
+        String filePath = scanner.nextLine().trim();
+        publishLoaded(new FileFiller().fillDistinctFromPath(filePath));
+    }
+
+    private static void generateBulk() {
+        System.out.print(" Введите количество пользователей: ");
+        int count = readInt();
+        System.out.print(" Введите seed: ");
+        while (!scanner.hasNextLong()) {
+            System.out.println(" Введите число.");
+            scanner.next();
+        }
+        long seed = scanner.nextLong();
+        scanner.nextLine();
+        // Миллионы строк в консоль не выводятся: только количество и первые записи
+        publishLoaded(new RandomFiller().fillBulk(count, seed), PREVIEW_ROWS);
+    }
+
+    private static void publishLoaded(List<User> newUsers) {
+        publishLoaded(newUsers, Integer.MAX_VALUE);
+    }
 
+    private static void publishLoaded(List<User> newUsers, int shownRows) {
         if (newUsers != null && !newUsers.isEmpty()) {
-            userCollection = CustomUserCollection.fromStream(newUsers.stream());
-            System.out.println(" Данные успешно добавлены через Stream. Всего пользователей: " + userCollection.size());
-            printUsers();
+            // Коллекция заменяется целиком: слежение за файлом дописывало бы строки в новые данные
+            if (follower != null) {
+                stopFollowing();
+                System.out.println(" Слежение за файлом остановлено: коллекция заменена.");
+            }
+            VersionedUserCollection.Snapshot snapshot =
+                    userStore.publish(CustomUserCollection.fromStream(newUsers.stream()));
+            System.out.println(" Данные успешно добавлены через Stream. Всего пользователей: " + snapshot.getUsers().size());
+            printUsers(shownRows);
         } else {
             System.out.println(" Не удалось добавить пользователей.");
         }
@@ -120,6 +189,8 @@ public class Main {
     }
 
     private static void sortUsers() {
+        VersionedUserCollection.Snapshot snapshot = userStore.snapshot();
+        CustomUserCollection userCollection = snapshot.getUsers();
         if (userCollection.isEmpty()) {
             System.out.println(" Список пользователей пуст.");
             return;
@@ -135,12 +206,14 @@ public class Main {
                 comparator
         );
 
-        userCollection = CustomUserCollection.fromStream(sorted.stream());
+        if (!publishSorted(snapshot, sorted)) return;
         System.out.println(" Сортировка выполнена. Стратегия: " + currentStrategy.getClass().getSimpleName());
         printUsers();
     }
 
     private static void sortUsersEvenOdd() {
+        VersionedUserCollection.Snapshot snapshot = userStore.snapshot();
+        CustomUserCollection userCollection = snapshot.getUsers();
         if (userCollection.isEmpty()) {
             System.out.println(" Список пользователей пуст.");
             return;
@@ -198,12 +271,21 @@ public class Main {
             );
         }
 
-        userCollection = CustomUserCollection.fromStream(sorted.stream());
+        if (!publishSorted(snapshot, sorted)) return;
         System.out.println(" Сортировка с условием чет/нечет выполнена.");
         printUsers();
     }
 
+    private static boolean publishSorted(VersionedUserCollection.Snapshot snapshot, List<User> sorted) {
+        if (!userStore.publishIfVersion(snapshot.getVersion(), CustomUserCollection.fromStream(sorted.stream()))) {
+            System.out.println(" Данные были перезагружены во время сортировки, результат отброшен.");
+            return false;
+        }
+        return true;
+    }
+
     private static void saveUsers() {
+        CustomUserCollection userCollection = userStore.current();
         if (userCollection.isEmpty()) {
             System.out.println(" Нет данных для сохранения.");
             return;
@@ -216,6 +298,10 @@ public class Main {
         System.out.println("1. Переписать файл");
         System.out.println("2. Дописать в конец");
         System.out.println("3. Дописать с временной меткой");
+        System.out.println("4. Бинарный формат (с индексом)");
+        System.out.println("5. Сжатый файл (gzip)");
+        System.out.println("6. Несколько файлов параллельно (шарды)");
+        System.out.println("7. Колоночный формат (словари имен и доменов)");
         System.out.print(" Ваш выбор: ");
 
         try {
@@ -224,21 +310,123 @@ public class Main {
                 case 1 -> FileSaverService.SaveMode.OVERWRITE;
                 case 2 -> FileSaverService.SaveMode.APPEND;
                 case 3 -> FileSaverService.SaveMode.APPEND_WITH_TIMESTAMP;
+                case 4 -> FileSaverService.SaveMode.BINARY;
+                case 5 -> FileSaverService.SaveMode.GZIP;
+                case 6 -> {
+                    configureSharding();
+                    yield FileSaverService.SaveMode.SHARDED;
+                }
+                case 7 -> FileSaverService.SaveMode.COLUMNAR;
                 default -> {
                     System.out.println(" Неверный выбор, используется OVERWRITE");
                     yield FileSaverService.SaveMode.OVERWRITE;
                 }
             };
 
-            fileSaver.saveToFile(userCollection.toList(), filePath, saveMode);
-            System.out.println(" Данные сохранены в файл: " + filePath);
+            // Запись идет в фоновом потоке, меню сразу доступно
+            fileSaver.saveAsync(userCollection.toList(), filePath, saveMode)
+                    .whenComplete((result, error) -> {
+                        if (error != null) {
+                            System.out.println("\n Ошибка при сохранении: " + error.getMessage());
+                        } else {
+                            System.out.println("\n Данные сохранены в файл: " + filePath + " ("
+                                    + result.getBytesWritten() + " байт, " + result.getLatencyMillis() + " мс)");
+                        }
+                    });
+            System.out.println(" Сохранение запущено в фоне: " + filePath);
 
         } catch (Exception e) {
             System.out.println(" Ошибка при сохранении: " + e.getMessage());
         }
     }
 
+    private static void configureSharding() {
+        System.out.print(" Число шардов: ");
+        int shards = Integer.parseInt(scanner.nextLine().trim());
+        System.out.print(" Разбиение (1 - по диапазонам, 2 - по хешу email): ");
+        ShardedUserFiles.Partitioning partitioning = "2".equals(scanner.nextLine().trim())
+                ? ShardedUserFiles.Partitioning.HASH
+                : ShardedUserFiles.Partitioning.CONTIGUOUS;
+        fileSaver.setSharding(shards, partitioning);
+    }
+
+    private static void compactFile() {
+        System.out.print(" Введите путь к файлу: ");
+        String filePath = scanner.nextLine().trim();
+        System.out.print(" Какие записи объединять (1 - только полностью совпадающие,"
+                + " 2 - оставить последнюю запись для каждого email): ");
+        UserFileCompactor.Key key = "2".equals(scanner.nextLine().trim())
+                ? UserFileCompactor.Key.MAIL
+                : UserFileCompactor.Key.USER;
+
+        fileSaver.compactAsync(filePath, key)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        System.out.println("\n Ошибка компактации: " + error.getMessage());
+                    } else {
+                        System.out.println("\n Файл компактирован: " + filePath + " ("
+                                + result.getBytesWritten() + " байт)");
+                    }
+                });
+        System.out.println(" Компактация запущена в фоне: " + filePath);
+    }
+
+    private static void followFile() {
+        System.out.print(" Введите путь к файлу: ");
+        String filePath = scanner.nextLine().trim();
+
+        stopFollowing();
+        try {
+            // Загруженные ранее пользователи сохраняются, записи файла добавляются к ним
+            follower = new FileFiller().follow(filePath, userStore);
+            System.out.println(" Новые строки файла будут добавляться автоматически. Пользователей: "
+                    + userStore.current().size());
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println(" Не удалось начать слежение: " + e.getMessage());
+        }
+    }
+
+    private static void browseFile() {
+        System.out.print(" Введите путь к файлу: ");
+        String filePath = scanner.nextLine().trim();
+
+        try {
+            UserFileIndex index = UserFileIndex.openOrBuild(filePath);
+            long pages = Math.max(1, (index.getCount() + PAGE_SIZE - 1) / PAGE_SIZE);
+            System.out.println(" Записей в файле: " + index.getCount() + ", страниц: " + pages);
+
+            FileReaderService reader = new FileReaderService();
+            while (true) {
+                System.out.print(" Номер страницы (пусто - выход): ");
+                String input = scanner.nextLine().trim();
+                if (input.isEmpty()) {
+                    return;
+                }
+                long page = Long.parseLong(input);
+                if (page < 1 || page > pages) {
+                    System.out.println(" Нет такой страницы.");
+                    continue;
+                }
+                long from = (page - 1) * PAGE_SIZE;
+                long to = Math.min(index.getCount(), from + PAGE_SIZE);
+                long[] number = {from};
+                reader.readRange(index, filePath, from, to, user -> System.out.printf("%6d. %-15s | %s%n",
+                        ++number[0], user.getName(), user.getMail()));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println(" Ошибка при просмотре файла: " + e.getMessage());
+        }
+    }
+
+    private static void stopFollowing() {
+        if (follower != null) {
+            follower.close();
+            follower = null;
+        }
+    }
+
     private static void countUserOccurrences() {
+        CustomUserCollection userCollection = userStore.current();
         if (userCollection.isEmpty()) {
             System.out.println(" Список пользователей пуст.");
             return;
@@ -299,6 +487,7 @@ public class Main {
     }
 
     private static void demonstrateStreamOperations() {
+        CustomUserCollection userCollection = userStore.current();
         if (userCollection.isEmpty()) {
             System.out.println(" Список пользователей пуст. Сначала добавьте пользователей.");
             return;
@@ -327,9 +516,19 @@ public class Main {
         unique.stream().map(User::getName).distinct().limit(5).forEach(name ->
                 System.out.println("   • " + name));
         if (unique.size() > 5) System.out.println("   ... и еще " + (unique.size() - 5));
+
+        String prefix = userCollection.get(0).getName().substring(0, 2);
+        System.out.println("\n Поиск по префиксу имени \"" + prefix + "\" (индекс):");
+        UserNameIndex nameIndex = UserNameIndex.build(userCollection);
+        System.out.println("   Найдено: " + nameIndex.countByPrefix(prefix) + " пользователей");
     }
 
     private static void printUsers() {
+        printUsers(Integer.MAX_VALUE);
+    }
+
+    private static void printUsers(int limit) {
+        CustomUserCollection userCollection = userStore.current();
         if (userCollection.isEmpty()) {
             System.out.println(" Список пользователей пуст.");
             return;
@@ -339,6 +538,10 @@ public class Main {
         System.out.println("─────────────────────────────");
         int i = 1;
         for (User user : userCollection) {
+            if (i > limit) {
+                System.out.println(" ... и еще " + (userCollection.size() - limit));
+                break;
+            }
             System.out.printf("%2d. %-15s | %-20s | %s%n",
                     i++,
                     user.getName(),
@@ -14,10 +14,18 @@ public class CustomUserCollection implements Iterable<User> {
         this.users = new ArrayList<>();
     }
 
+    public CustomUserCollection(int initialCapacity) {
+        this.users = new ArrayList<>(initialCapacity);
+    }
+
     public CustomUserCollection(Collection<User> users) {
         this.users = new ArrayList<>(users);
     }
 
+    private CustomUserCollection(List<User> users, boolean readOnly) {
+        this.users = readOnly ? Collections.unmodifiableList(users) : users;
+    }
+
     public boolean add(User user) {
         return user != null && users.add(user);
     }
@@ -74,6 +82,11 @@ public class CustomUserCollection implements Iterable<User> {
         return new CustomUserCollection(users.stream().sorted(comparator).collect(Collectors.toList()));
     }
 
+    // Неизменяемая копия: add/remove/clear бросают UnsupportedOperationException
+    public CustomUserCollection toReadOnly() {
+        return new CustomUserCollection(new ArrayList<>(users), true);
+    }
+
     public UserList toUserList() {
         return new UserList(users);
     }
@@ -0,0 +1,86 @@
+package Client.collection;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+// Хранилище с копированием при записи: публикация атомарно заменяет неизменяемый снимок
+public class VersionedUserCollection {
+
+    private final AtomicReference<Snapshot> current;
+
+    public VersionedUserCollection() {
+        this.current = new AtomicReference<>(new Snapshot(0, new CustomUserCollection().toReadOnly()));
+    }
+
+    public Snapshot snapshot() {
+        return current.get();
+    }
+
+    public CustomUserCollection current() {
+        return current.get().getUsers();
+    }
+
+    public long version() {
+        return current.get().getVersion();
+    }
+
+    public Snapshot publish(CustomUserCollection users) {
+        CustomUserCollection readOnly = users.toReadOnly();
+        while (true) {
+            Snapshot previous = current.get();
+            Snapshot next = new Snapshot(previous.getVersion() + 1, readOnly);
+            if (current.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+
+    // Публикует только если с момента чтения снимка expectedVersion никто не успел его заменить
+    public boolean publishIfVersion(long expectedVersion, CustomUserCollection users) {
+        Snapshot previous = current.get();
+        if (previous.getVersion() != expectedVersion) {
+            return false;
+        }
+        return current.compareAndSet(previous, new Snapshot(expectedVersion + 1, users.toReadOnly()));
+    }
+
+    public Snapshot update(UnaryOperator<CustomUserCollection> updater) {
+        while (true) {
+            Snapshot previous = current.get();
+            CustomUserCollection updated = updater.apply(previous.getUsers()).toReadOnly();
+            Snapshot next = new Snapshot(previous.getVersion() + 1, updated);
+            if (current.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+
+    public CompletableFuture<Snapshot> publishAsync(Supplier<CustomUserCollection> loader) {
+        return CompletableFuture.supplyAsync(loader).thenApply(this::publish);
+    }
+
+    public static final class Snapshot {
+        private final long version;
+        private final CustomUserCollection users;
+
+        private Snapshot(long version, CustomUserCollection users) {
+            this.version = version;
+            this.users = users;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public CustomUserCollection getUsers() {
+            return users;
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{version=" + version + ", size=" + users.size() + "}";
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package Client.model;
+
+import Client.service.validation.UserValidator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Пользователь в одном массиве UTF-8 байт: строки декодируются только в геттерах
+public final class CompactUser implements Comparable<CompactUser> {
+
+    // [name][password][mail] подряд, границы задаются смещениями
+    private final byte[] data;
+    private final int passwordStart;
+    private final int mailStart;
+
+    private CompactUser(byte[] data, int passwordStart, int mailStart) {
+        this.data = data;
+        this.passwordStart = passwordStart;
+        this.mailStart = mailStart;
+    }
+
+    public static CompactUser of(String name, String password, String mail) {
+        if (!UserValidator.isValidName(name)) {
+            throw new IllegalArgumentException(UserValidator.getNameErrorMessage(name));
+        }
+        if (!UserValidator.isValidPassword(password)) {
+            throw new IllegalArgumentException(UserValidator.getPasswordErrorMessage(password));
+        }
+        if (!UserValidator.isValidMail(mail)) {
+            throw new IllegalArgumentException(UserValidator.getMailErrorMessage(mail));
+        }
+        return encode(name, password, mail);
+    }
+
+    public static CompactUser from(User user) {
+        return encode(user.getName(), user.getPassword(), user.getMail());
+    }
+
+    private static CompactUser encode(String name, String password, String mail) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        byte[] passwordBytes = password.getBytes(StandardCharsets.UTF_8);
+        byte[] mailBytes = mail.getBytes(StandardCharsets.UTF_8);
+
+        byte[] data = new byte[nameBytes.length + passwordBytes.length + mailBytes.length];
+        System.arraycopy(nameBytes, 0, data, 0, nameBytes.length);
+        System.arraycopy(passwordBytes, 0, data, nameBytes.length, passwordBytes.length);
+        System.arraycopy(mailBytes, 0, data, nameBytes.length + passwordBytes.length, mailBytes.length);
+
+        return new CompactUser(data, nameBytes.length, nameBytes.length + passwordBytes.length);
+    }
+
+    public String getName() {
+        return new String(data, 0, passwordStart, StandardCharsets.UTF_8);
+    }
+
+    public String getPassword() {
+        return new String(data, passwordStart, mailStart - passwordStart, StandardCharsets.UTF_8);
+    }
+
+    public String getMail() {
+        return new String(data, mailStart, data.length - mailStart, StandardCharsets.UTF_8);
+    }
+
+    public int getEncodedSize() {
+        return data.length;
+    }
+
+    public User toUser() {
+        // Поля уже прошли валидацию при создании
+        return new User(getName(), getPassword(), getMail());
+    }
+
+    // Беззнаковое сравнение UTF-8 байт совпадает с порядком кодовых точек
+    @Override
+    public int compareTo(CompactUser other) {
+        int result = Arrays.compareUnsigned(data, 0, passwordStart, other.data, 0, other.passwordStart);
+        if (result != 0) return result;
+        result = Arrays.compareUnsigned(data, passwordStart, mailStart,
+                other.data, other.passwordStart, other.mailStart);
+        if (result != 0) return result;
+        return Arrays.compareUnsigned(data, mailStart, data.length, other.data, other.mailStart, other.data.length);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CompactUser that = (CompactUser) o;
+        return passwordStart == that.passwordStart &&
+                mailStart == that.mailStart &&
+                Arrays.equals(data, that.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(data) + passwordStart) + mailStart;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactUser{" +
+                "name='" + getName() + '\'' +
+                ", password='" + getPassword() + '\'' +
+                ", mail='" + getMail() + '\'' +
+                '}';
+    }
+}
@@ -1,5 +1,8 @@
 package Client.model;
 
+import Client.service.validation.BatchValidationResult;
+import Client.service.validation.UserValidator;
+
 import java.util.Objects;
 
 public final class User {
@@ -53,4 +56,24 @@ public final class User {
     public static UserBuilder builder() {
         return new UserBuilder();
     }
+
+    // Проверка полей за один проход; для невалидных данных вместо исключения возвращается код ошибки
+    public static UserResult tryCreate(String name, String password, String mail) {
+        byte code = UserValidator.errorCode(name, password, mail);
+        if (code == BatchValidationResult.OK) {
+            return UserResult.success(new User(name, password, mail));
+        }
+        return UserResult.failure(code, BatchValidationResult.isNameError(code) ? name
+                : BatchValidationResult.isPasswordError(code) ? password
+                : mail);
+    }
+
+    // Строка уже проверена пакетом UserValidator.validateBatch, повторная проверка полей не нужна:
+    // пакет хранит копию проверенных значений, и изменение исходных массивов ее не затрагивает
+    public static User fromBatch(BatchValidationResult batch, int row) {
+        if (!batch.isValid(row)) {
+            throw new IllegalArgumentException(batch.getMessage(row));
+        }
+        return new User(batch.getName(row), batch.getPassword(row), batch.getMail(row));
+    }
 }
\ No newline at end of file
@@ -1,7 +1,5 @@
 package Client.model;
 
-import Client.service.validation.UserValidator;
-
 public class UserBuilder {
     private String name;
     private String password;
@@ -12,27 +10,6 @@ public class UserBuilder {
     public UserBuilder mail(String mail) { this.mail = mail; return this; }
 
     public User build() {
-        validateName();
-        validatePassword();
-        validateMail();
-        return new User(name, password, mail);
-    }
-
-    private void validateName() {
-        if (!UserValidator.isValidName(name)) {
-            throw new IllegalArgumentException(UserValidator.getNameErrorMessage(name));
-        }
-    }
-
-    private void validatePassword() {
-        if (!UserValidator.isValidPassword(password)) {
-            throw new IllegalArgumentException(UserValidator.getPasswordErrorMessage(password));
-        }
-    }
-
-    private void validateMail() {
-        if (!UserValidator.isValidMail(mail)) {
-            throw new IllegalArgumentException(UserValidator.getMailErrorMessage(mail));
-        }
+        return User.tryCreate(name, password, mail).orElseThrow();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package Client.model;
+
+import Client.service.validation.BatchValidationResult;
+import Client.service.validation.UserValidator;
+
+// Результат User.tryCreate: пользователь или код первой ошибки, без исключения
+public final class UserResult {
+
+    // Сообщения всех кодов, кроме MAIL_FORMAT, не зависят от значения поля: такие ошибки переиспользуются
+    private static final UserResult[] FAILURES = new UserResult[BatchValidationResult.MAIL_TOO_LONG + 1];
+
+    static {
+        for (byte code = 1; code < FAILURES.length; code++) {
+            FAILURES[code] = new UserResult(null, code, null);
+        }
+    }
+
+    private final User user;
+    private final byte errorCode;
+    private final String value;
+
+    private UserResult(User user, byte errorCode, String value) {
+        this.user = user;
+        this.errorCode = errorCode;
+        this.value = value;
+    }
+
+    static UserResult success(User user) {
+        return new UserResult(user, BatchValidationResult.OK, null);
+    }
+
+    static UserResult failure(byte errorCode, String value) {
+        if (errorCode == BatchValidationResult.MAIL_FORMAT) {
+            return new UserResult(null, errorCode, value);
+        }
+        return FAILURES[errorCode];
+    }
+
+    public boolean isValid() {
+        return user != null;
+    }
+
+    // null, если проверка не пройдена
+    public User getUser() {
+        return user;
+    }
+
+    public byte getErrorCode() {
+        return errorCode;
+    }
+
+    // null для успешного результата
+    public String getMessage() {
+        return isValid() ? null : UserValidator.getErrorMessage(errorCode, value);
+    }
+
+    public User orElseThrow() {
+        if (user == null) {
+            throw new IllegalArgumentException(getMessage());
+        }
+        return user;
+    }
+}
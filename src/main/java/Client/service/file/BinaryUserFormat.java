@@ -0,0 +1,111 @@
+package Client.service.file;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Бинарный формат файла пользователей; все числа в big-endian
+public final class BinaryUserFormat {
+
+    public static final int MAGIC = 0x50555352;
+    public static final short VERSION = 1;
+    public static final short FLAG_INDEX = 1;
+    public static final int HEADER_SIZE = 24;
+
+    // Длина поля хранится в u16; валидные поля (до 100 символов) занимают не более 300 байт
+    public static final int MAX_FIELD_BYTES = 0xFFFF;
+    public static final int MAX_RECORD_SIZE = 3 * (2 + MAX_FIELD_BYTES);
+    // Запись из трех пустых полей: только длины
+    public static final int MIN_RECORD_SIZE = 3 * 2;
+
+    private BinaryUserFormat() {
+    }
+
+    // Заголовок (24 байта): magic "PUSR" | version u16 | flags u16 | count i64 | indexOffset i64
+    // Записи: [u16 длина + UTF-8] x 3 (name, password, mail); индекс при FLAG_INDEX: count x i64 смещений записей,
+    // indexOffset = 0, если индекса нет
+    public static void writeHeader(ByteBuffer buffer, long count, long indexOffset) {
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort(indexOffset > 0 ? FLAG_INDEX : 0);
+        buffer.putLong(count);
+        buffer.putLong(indexOffset);
+    }
+
+    public static Header readHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("Файл не является бинарным файлом пользователей");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Неподдерживаемая версия бинарного формата: " + version);
+        }
+        short flags = buffer.getShort();
+        long count = buffer.getLong();
+        long indexOffset = buffer.getLong();
+        if (count < 0 || ((flags & FLAG_INDEX) != 0) != (indexOffset > 0)) {
+            throw new IOException("Поврежден заголовок бинарного файла");
+        }
+        return new Header(count, indexOffset);
+    }
+
+    public static int recordSize(byte[] name, byte[] password, byte[] mail) {
+        return 6 + name.length + password.length + mail.length;
+    }
+
+    public static void writeRecord(ByteBuffer buffer, byte[] name, byte[] password, byte[] mail) {
+        writeField(buffer, name);
+        writeField(buffer, password);
+        writeField(buffer, mail);
+    }
+
+    private static void writeField(ByteBuffer buffer, byte[] field) {
+        if (field.length > MAX_FIELD_BYTES) {
+            throw new IllegalArgumentException("Слишком длинное поле для бинарного формата: " + field.length + " байт");
+        }
+        buffer.putShort((short) field.length);
+        buffer.put(field);
+    }
+
+    // Буфер должен быть heap-буфером; позиция сдвигается за прочитанное поле
+    public static String readField(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    // Есть ли в буфере запись целиком (без чтения)
+    public static boolean hasCompleteRecord(ByteBuffer buffer) {
+        int position = buffer.position();
+        int limit = buffer.limit();
+        for (int field = 0; field < 3; field++) {
+            if (limit - position < 2) return false;
+            position += 2 + (buffer.getShort(position) & 0xFFFF);
+            if (position > limit) return false;
+        }
+        return true;
+    }
+
+    public static final class Header {
+        private final long count;
+        private final long indexOffset;
+
+        private Header(long count, long indexOffset) {
+            this.count = count;
+            this.indexOffset = indexOffset;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getIndexOffset() {
+            return indexOffset;
+        }
+
+        public boolean hasIndex() {
+            return indexOffset > 0;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package Client.service.file;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Колоночный формат: каждое поле — отдельный блок, читатель загружает только нужные колонки
+public final class ColumnarUserFormat {
+
+    public static final int MAGIC = 0x5055434C;
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 16 + Column.values().length * 16;
+
+    public enum Column {
+        NAME(true),
+        MAIL_DOMAIN(true),
+        MAIL_LOCAL(false),
+        PASSWORD(false);
+
+        private final boolean dictionary;
+
+        Column(boolean dictionary) {
+            this.dictionary = dictionary;
+        }
+
+        public boolean isDictionary() {
+            return dictionary;
+        }
+    }
+
+    private ColumnarUserFormat() {
+    }
+
+    public static boolean isColumnar(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            while (magic.hasRemaining()) {
+                if (channel.read(magic) < 0) return false;
+            }
+            return magic.getInt(0) == MAGIC;
+        }
+    }
+
+    // Заголовок (HEADER_SIZE = 16 + 16 x колонок, big-endian): magic "PUCL" | version u16 | reserved u16 | count i64 |
+    // по колонке (offset i64, length i64). Колонка-словарь (NAME, MAIL_DOMAIN): size i32 | size x [u16 длина + UTF-8] |
+    // width u8 | count x id (width байт); колонка-блоб (MAIL_LOCAL, PASSWORD): count x [u16 длина + UTF-8]
+    public static void writeHeader(ByteBuffer buffer, long count, long[] offsets, long[] lengths) {
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort((short) 0);
+        buffer.putLong(count);
+        for (int i = 0; i < Column.values().length; i++) {
+            buffer.putLong(offsets[i]);
+            buffer.putLong(lengths[i]);
+        }
+    }
+
+    public static Header readHeader(ByteBuffer buffer, long fileSize) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("Файл не является колоночным файлом пользователей");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Неподдерживаемая версия колоночного формата: " + version);
+        }
+        buffer.getShort();
+        long count = buffer.getLong();
+        int columns = Column.values().length;
+        long[] offsets = new long[columns];
+        long[] lengths = new long[columns];
+        for (int i = 0; i < columns; i++) {
+            offsets[i] = buffer.getLong();
+            lengths[i] = buffer.getLong();
+            if (offsets[i] < HEADER_SIZE || lengths[i] < 0 || offsets[i] + lengths[i] > fileSize) {
+                throw new IOException("Поврежден каталог колонок: колонка " + Column.values()[i]);
+            }
+        }
+        if (count < 0) {
+            throw new IOException("Поврежден заголовок колоночного файла");
+        }
+        // Читатель выделяет массив на count значений, поэтому count сверяется с длиной каждой колонки:
+        // запись занимает не меньше байта id в словарной колонке и двух байт длины в обычной
+        for (int i = 0; i < columns; i++) {
+            int minRecordBytes = Column.values()[i].isDictionary() ? 1 : 2;
+            if (count > lengths[i] / minRecordBytes) {
+                throw new IOException("Число записей " + count + " не помещается в колонку " + Column.values()[i]);
+            }
+        }
+        return new Header(count, offsets, lengths);
+    }
+
+    // Минимальная ширина id в байтах для словаря заданного размера
+    public static int idWidth(int dictionarySize) {
+        if (dictionarySize <= 0x100) return 1;
+        if (dictionarySize <= 0x10000) return 2;
+        return 4;
+    }
+
+    public static void writeId(ByteBuffer buffer, int id, int width) {
+        switch (width) {
+            case 1 -> buffer.put((byte) id);
+            case 2 -> buffer.putShort((short) id);
+            default -> buffer.putInt(id);
+        }
+    }
+
+    public static int readId(ByteBuffer buffer, int width) {
+        return switch (width) {
+            case 1 -> buffer.get() & 0xFF;
+            case 2 -> buffer.getShort() & 0xFFFF;
+            default -> buffer.getInt();
+        };
+    }
+
+    public static void writeValue(ByteBuffer buffer, byte[] value) {
+        if (value.length > BinaryUserFormat.MAX_FIELD_BYTES) {
+            throw new IllegalArgumentException("Слишком длинное поле для колоночного формата: " + value.length + " байт");
+        }
+        buffer.putShort((short) value.length);
+        buffer.put(value);
+    }
+
+    // Работает и с отображенным в память буфером; scratch — переиспользуемый массив для байт значения
+    public static String readValue(ByteBuffer buffer, byte[] scratch) {
+        int length = buffer.getShort() & 0xFFFF;
+        buffer.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    public static final class Header {
+        private final long count;
+        private final long[] offsets;
+        private final long[] lengths;
+
+        private Header(long count, long[] offsets, long[] lengths) {
+            this.count = count;
+            this.offsets = offsets;
+            this.lengths = lengths;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getOffset(Column column) {
+            return offsets[column.ordinal()];
+        }
+
+        public long getLength(Column column) {
+            return lengths[column.ordinal()];
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package Client.service.file;
+
+// Когда компактировать: файл больше minFileBytes и хвост после контрольной точки больше tailRatio от снимка
+public final class CompactionPolicy {
+
+    public static final CompactionPolicy DISABLED = new CompactionPolicy(Long.MAX_VALUE, Double.MAX_VALUE);
+
+    private final long minFileBytes;
+    private final double tailRatio;
+
+    public CompactionPolicy(long minFileBytes, double tailRatio) {
+        if (minFileBytes < 0 || tailRatio < 0) {
+            throw new IllegalArgumentException("Параметры политики компактации не могут быть отрицательными");
+        }
+        this.minFileBytes = minFileBytes;
+        this.tailRatio = tailRatio;
+    }
+
+    public static CompactionPolicy defaultPolicy() {
+        return new CompactionPolicy(16L * 1024 * 1024, 1.0);
+    }
+
+    public boolean shouldCompact(long fileBytes, UserFileCompactor.Checkpoint checkpoint) {
+        if (this == DISABLED || fileBytes < minFileBytes) {
+            return false;
+        }
+        long snapshotBytes = checkpoint != null ? checkpoint.getSnapshotBytes() : 0;
+        return fileBytes - snapshotBytes > snapshotBytes * tailRatio;
+    }
+
+    public long getMinFileBytes() {
+        return minFileBytes;
+    }
+
+    public double getTailRatio() {
+        return tailRatio;
+    }
+}
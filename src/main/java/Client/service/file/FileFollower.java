@@ -0,0 +1,231 @@
+package Client.service.file;
+
+import Client.model.User;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Слежение за файлом: новые строки читаются с последнего смещения, ротация и усечение — с начала
+public class FileFollower implements Closeable {
+
+    public static final long DEFAULT_POLL_INTERVAL_MILLIS = 1000;
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final Sink sink;
+    private final long pollIntervalMillis;
+    private final UserLineParser parser = new UserLineParser();
+
+    private byte[] buffer = new byte[READ_BUFFER_SIZE];
+    private long offset;
+    private Object fileKey;
+    private long invalidCount;
+    private int resetCount;
+
+    private volatile boolean closed;
+    private Thread thread;
+
+    public FileFollower(Path path, Sink sink) {
+        this(path, sink, DEFAULT_POLL_INTERVAL_MILLIS);
+    }
+
+    public FileFollower(Path path, Sink sink, long pollIntervalMillis) {
+        if (GzipUserFiles.isGzip(path)) {
+            throw new IllegalArgumentException("Слежение за сжатыми файлами не поддерживается: " + path);
+        }
+        this.path = path;
+        this.sink = sink;
+        this.pollIntervalMillis = Math.max(1, pollIntervalMillis);
+    }
+
+    // Пропустить уже существующее содержимое и получать только новые строки
+    public synchronized void skipToEnd() throws IOException {
+        if (Files.exists(path)) {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            fileKey = attributes.fileKey();
+            offset = attributes.size();
+        }
+    }
+
+    public synchronized void start() {
+        if (thread != null) return;
+        thread = new Thread(this::run, "user-file-follower");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Один проход: разбирает строки, дописанные с прошлого раза, и передает их в sink одной партией
+    public synchronized int poll() throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        Object key = attributes.fileKey();
+        long size = attributes.size();
+
+        boolean rotated = fileKey != null && key != null && !fileKey.equals(key);
+        boolean reset = rotated || size < offset;
+        if (reset) {
+            offset = 0;
+            resetCount++;
+            System.out.println("Файл " + path + (rotated ? " заменен" : " усечен") + ", чтение с начала");
+        }
+        fileKey = key;
+        if (size == offset && !reset) {
+            return 0;
+        }
+
+        List<User> batch = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            int filled = 0;
+            long readPosition = offset;
+            while (true) {
+                if (filled == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int read = channel.read(ByteBuffer.wrap(buffer, filled, buffer.length - filled), readPosition);
+                if (read <= 0) break;
+                readPosition += read;
+
+                int lineStart = 0;
+                int end = filled + read;
+                for (int i = filled; i < end; i++) {
+                    if (buffer[i] == '\n') {
+                        parseLine(lineStart, i, batch);
+                        lineStart = i + 1;
+                    }
+                }
+                // Незавершенная последняя строка остается в буфере до следующего чтения
+                offset += lineStart;
+                filled = end - lineStart;
+                System.arraycopy(buffer, lineStart, buffer, 0, filled);
+            }
+        }
+
+        // После ротации или усечения прочитано все содержимое файла, и оно заменяет переданное ранее
+        if (reset) {
+            sink.replace(batch);
+        } else if (!batch.isEmpty()) {
+            sink.append(batch);
+        }
+        return batch.size();
+    }
+
+    public synchronized long getOffset() {
+        return offset;
+    }
+
+    public synchronized long getInvalidCount() {
+        return invalidCount;
+    }
+
+    public synchronized int getResetCount() {
+        return resetCount;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Thread current;
+        synchronized (this) {
+            current = thread;
+        }
+        if (current != null) {
+            current.interrupt();
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void parseLine(int from, int to, List<User> batch) {
+        int status = parser.parse(buffer, from, to);
+        if (status == UserLineParser.SKIP) {
+            return;
+        }
+        User user = status == UserLineParser.OK ? parser.toResult().getUser() : null;
+        if (user == null) {
+            invalidCount++;
+            return;
+        }
+        batch.add(user);
+    }
+
+    private void run() {
+        WatchService watchService = openWatchService();
+        try {
+            while (!closed) {
+                pollQuietly();
+                if (watchService != null) {
+                    // Событие или таймаут — в обоих случаях файл проверяется заново
+                    WatchKey key = watchService.poll(pollIntervalMillis, TimeUnit.MILLISECONDS);
+                    if (key != null) {
+                        key.pollEvents();
+                        key.reset();
+                    }
+                } else {
+                    Thread.sleep(pollIntervalMillis);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Остановка через close()
+        } finally {
+            if (watchService != null) {
+                try {
+                    watchService.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (IOException e) {
+            if (!closed) {
+                System.err.println("Ошибка чтения файла " + path + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private WatchService openWatchService() {
+        Path directory = path.toAbsolutePath().getParent();
+        if (directory == null) {
+            return null;
+        }
+        WatchService watchService = null;
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            return watchService;
+        } catch (IOException | UnsupportedOperationException e) {
+            System.out.println("WatchService недоступен, используется периодическая проверка: " + e.getMessage());
+            if (watchService != null) {
+                try {
+                    watchService.close();
+                } catch (IOException ignored) {
+                }
+            }
+            return null;
+        }
+    }
+
+    public interface Sink {
+        void append(List<User> users);
+
+        // Файл прочитан заново с начала: users — все его записи, переданные раньше партии недействительны
+        void replace(List<User> users);
+    }
+}
@@ -1,80 +1,413 @@
 package Client.service.file;
 
+import Client.collection.CustomUserCollection;
 import Client.model.User;
+import Client.model.UserResult;
+import Client.service.validation.BatchValidationResult;
 import Client.service.validation.UserValidator;
+import Client.service.validation.ValidationCache;
 
+import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class FileReaderService {
 
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int BINARY_BUFFER_SIZE = 1024 * 1024;
+    private static final int VALIDATION_BATCH_SIZE = 1024;
+
+    private final ValidationCache validationCache;
+    private volatile LoadReport lastReport;
+    private volatile UserDeduplicator.Result lastDeduplication;
+
+    public FileReaderService() {
+        this(null);
+    }
+
+    // Кэш проверки для readFromFile; null — проверка без кэша
+    public FileReaderService(ValidationCache validationCache) {
+        this.validationCache = validationCache;
+    }
+
     public List<User> readFromFile(String filePath) throws IOException {
         List<User> users = new ArrayList<>();
-        List<String> lines = Files.readAllLines(Paths.get(filePath));
+        readFromFile(filePath, users::add);
+        return users;
+    }
 
+    // Потоковое чтение: пользователи передаются в consumer по мере разбора, файл целиком в память не загружается
+    public int readFromFile(String filePath, Consumer<User> consumer) throws IOException {
         System.out.println("Чтение файла: " + filePath);
-        System.out.println("Всего строк: " + lines.size());
 
+        LoadReport report = new LoadReport();
+        lastReport = report;
+        int lineNumber = 0;
         int validCount = 0;
-        int invalidCount = 0;
+        UserLineParser parser = new UserLineParser();
+        // Строки проверяются пакетами по VALIDATION_BATCH_SIZE
+        String[] names = new String[VALIDATION_BATCH_SIZE];
+        String[] passwords = new String[VALIDATION_BATCH_SIZE];
+        String[] mails = new String[VALIDATION_BATCH_SIZE];
+        String[] lines = new String[VALIDATION_BATCH_SIZE];
+        int[] lineNumbers = new int[VALIDATION_BATCH_SIZE];
+        int pending = 0;
 
-        for (int i = 0; i < lines.size(); i++) {
-            String line = lines.get(i).trim();
+        try (BufferedReader reader = openReader(filePath)) {
+            String rawLine;
+            while ((rawLine = reader.readLine()) != null) {
+                lineNumber++;
 
-            if (line.isEmpty() || line.startsWith("#")) {
-                continue;
+                int status = parser.parse(rawLine);
+                if (status == UserLineParser.SKIP) {
+                    continue;
+                }
+                if (status != UserLineParser.OK) {
+                    report.recordError(LoadReport.categoryOf(status), lineNumber, rawLine);
+                    continue;
+                }
+
+                names[pending] = parser.getName();
+                passwords[pending] = parser.getPassword();
+                mails[pending] = parser.getMail();
+                lines[pending] = rawLine;
+                lineNumbers[pending] = lineNumber;
+                if (++pending == VALIDATION_BATCH_SIZE) {
+                    validCount += acceptBatch(names, passwords, mails, lines, lineNumbers, pending, consumer, report);
+                    pending = 0;
+                }
             }
+        }
+        validCount += acceptBatch(names, passwords, mails, lines, lineNumbers, pending, consumer, report);
+
+        report.addLines(lineNumber);
+        report.addValid(validCount);
+        report.print();
 
-            String[] parts = line.split(";");
+        return validCount;
+    }
 
-            if (parts.length != 3) {
-                System.err.println("Строка " + (i + 1) + ": неверный формат. Ожидается: name;password;mail");
-                invalidCount++;
+    private int acceptBatch(String[] names, String[] passwords, String[] mails, String[] lines, int[] lineNumbers,
+                            int count, Consumer<User> consumer, LoadReport report) {
+        BatchValidationResult validation = UserValidator.validateBatch(names, passwords, mails, count, false,
+                validationCache);
+        int accepted = 0;
+        for (int i = 0; i < count; i++) {
+            if (!validation.isValid(i)) {
+                report.recordError(LoadReport.categoryOfCode(validation.getErrorCode(i)), lineNumbers[i], lines[i]);
                 continue;
             }
+            consumer.accept(User.fromBatch(validation, i));
+            accepted++;
+        }
+        return accepted;
+    }
 
-            String name = parts[0].trim();
-            String password = parts[1].trim();
-            String mail = parts[2].trim();
+    // distinct = true: повторяющиеся пользователи отбрасываются при чтении; возвращает число уникальных
+    public int readFromFile(String filePath, Consumer<User> consumer, boolean distinct) throws IOException {
+        if (!distinct) {
+            return readFromFile(filePath, consumer);
+        }
+        try (UserDeduplicator deduplicator = new UserDeduplicator(consumer)) {
+            readFromFile(filePath, deduplicator);
+            UserDeduplicator.Result result = deduplicator.finish();
+            lastDeduplication = result;
+            result.print();
+            return (int) result.getDistinct();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
 
-            if (!UserValidator.isValidUser(name, password, mail)) {
-                System.err.println("Строка " + (i + 1) + ": невалидные данные:");
-                if (!UserValidator.isValidName(name)) {
-                    System.err.println("  - " + UserValidator.getNameErrorMessage(name));
-                }
-                if (!UserValidator.isValidPassword(password)) {
-                    System.err.println("  - " + UserValidator.getPasswordErrorMessage(password));
+    // Итог удаления дубликатов при последнем чтении с distinct = true
+    public UserDeduplicator.Result getLastDeduplication() {
+        return lastDeduplication;
+    }
+
+    // Отчет о последнем чтении текстового файла
+    public LoadReport getLastReport() {
+        return lastReport;
+    }
+
+    public CustomUserCollection readBinaryFile(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BINARY_BUFFER_SIZE);
+            buffer.flip();
+            fill(channel, buffer);
+            BinaryUserFormat.Header header = BinaryUserFormat.readHeader(buffer);
+
+            // Емкость коллекции берется из заголовка, поэтому число записей сверяется с размером файла
+            long maxCount = (channel.size() - BinaryUserFormat.HEADER_SIZE) / BinaryUserFormat.MIN_RECORD_SIZE;
+            if (header.getCount() > maxCount) {
+                throw new IOException("Заголовок указывает " + header.getCount() + " записей, а файл вмещает не больше "
+                        + maxCount);
+            }
+            if (header.getCount() > Integer.MAX_VALUE) {
+                throw new IOException("Слишком много записей для загрузки в память: " + header.getCount());
+            }
+            int count = (int) header.getCount();
+            CustomUserCollection users = new CustomUserCollection(count);
+            LoadReport report = new LoadReport();
+            lastReport = report;
+
+            for (int i = 0; i < count; i++) {
+                if (!BinaryUserFormat.hasCompleteRecord(buffer)) {
+                    fill(channel, buffer);
+                    if (!BinaryUserFormat.hasCompleteRecord(buffer)) {
+                        throw new EOFException("Файл обрывается на записи " + (i + 1) + " из " + count);
+                    }
                 }
-                if (!UserValidator.isValidMail(mail)) {
-                    System.err.println("  - " + UserValidator.getMailErrorMessage(mail));
+                String name = BinaryUserFormat.readField(buffer);
+                String password = BinaryUserFormat.readField(buffer);
+                String mail = BinaryUserFormat.readField(buffer);
+                UserResult result = User.tryCreate(name, password, mail);
+                if (result.isValid()) {
+                    users.add(result.getUser());
+                } else {
+                    report.recordError(LoadReport.categoryOfCode(result.getErrorCode()), i + 1,
+                            name + ";" + password + ";" + mail);
                 }
-                invalidCount++;
-                continue;
             }
+            report.addLines(count);
+            report.addValid(users.size());
 
-            try {
-                User user = User.builder()
-                        .name(name)
-                        .password(password)
-                        .mail(mail)
-                        .build();
-                users.add(user);
-                validCount++;
-            } catch (IllegalArgumentException e) {
-                System.err.println("Строка " + (i + 1) + ": ошибка создания пользователя - " + e.getMessage());
-                invalidCount++;
+            System.out.println("Загружено из бинарного файла: " + users.size());
+            if (report.getInvalid() > 0) {
+                System.out.println("Пропущено невалидных записей: " + report.getInvalid());
+                report.printErrors();
             }
+            return users;
         }
+    }
+
+    // Чтение одной записи через индекс, без разбора предыдущих
+    public User readBinaryRecord(String filePath, long recordIndex) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BinaryUserFormat.HEADER_SIZE);
+            readFully(channel, buffer, 0);
+            BinaryUserFormat.Header header = BinaryUserFormat.readHeader(buffer);
+
+            if (!header.hasIndex()) {
+                throw new IOException("В файле нет индекса записей: " + filePath);
+            }
+            if (recordIndex < 0 || recordIndex >= header.getCount()) {
+                throw new IndexOutOfBoundsException("Запись " + recordIndex + " вне диапазона [0, " + header.getCount() + ")");
+            }
 
-        System.out.println("Результат чтения:");
-        System.out.println("  - Успешно загружено: " + validCount);
-        System.out.println("  - Пропущено (ошибки): " + invalidCount);
+            ByteBuffer offset = ByteBuffer.allocate(Long.BYTES);
+            readFully(channel, offset, header.getIndexOffset() + recordIndex * Long.BYTES);
+            long recordOffset = offset.getLong();
 
+            ByteBuffer record = ByteBuffer.allocate((int) Math.min(BinaryUserFormat.MAX_RECORD_SIZE,
+                    channel.size() - recordOffset));
+            readFully(channel, record, recordOffset);
+            if (!BinaryUserFormat.hasCompleteRecord(record)) {
+                throw new EOFException("Запись " + recordIndex + " повреждена");
+            }
+            String name = BinaryUserFormat.readField(record);
+            String password = BinaryUserFormat.readField(record);
+            String mail = BinaryUserFormat.readField(record);
+            return User.tryCreate(name, password, mail).orElseThrow();
+        }
+    }
+
+    // Чтение записи текстового файла через индекс строк (.idx), префикс файла не разбирается
+    public User readRecord(String filePath, long recordIndex) throws IOException {
+        List<User> users = readRange(filePath, recordIndex, recordIndex + 1);
+        return users.get(0);
+    }
+
+    // Записи [from, to) в порядке файла; для постраничного просмотра и раздачи диапазонов параллельным загрузчикам
+    public List<User> readRange(String filePath, long from, long to) throws IOException {
+        List<User> users = new ArrayList<>((int) Math.min(Math.max(0, to - from), READ_BUFFER_SIZE));
+        readRange(UserFileIndex.openOrBuild(filePath), filePath, from, to, users::add);
         return users;
     }
 
+    public long readRange(UserFileIndex index, String filePath, long from, long to, Consumer<User> consumer)
+            throws IOException {
+        if (from < 0 || from > to || to > index.getCount()) {
+            throw new IndexOutOfBoundsException("Диапазон [" + from + ", " + to + ") вне [0, " + index.getCount() + ")");
+        }
+        long expected = to - from;
+        if (expected == 0) {
+            return 0;
+        }
+
+        long read = 0;
+        UserLineParser parser = new UserLineParser();
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            channel.position(index.getOffset(from));
+            int bufferSize = (int) Math.min(READ_BUFFER_SIZE, Math.max(1, index.getOffset(to) - index.getOffset(from)));
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8), bufferSize);
+            // Между записями могут быть комментарии и невалидные строки, индекс их не учитывает
+            String line;
+            while (read < expected && (line = reader.readLine()) != null) {
+                if (parser.parse(line) != UserLineParser.OK) {
+                    continue;
+                }
+                UserResult result = parser.toResult();
+                if (result.isValid()) {
+                    consumer.accept(result.getUser());
+                    read++;
+                }
+            }
+        }
+        if (read != expected) {
+            throw new EOFException("Файл изменился после построения индекса: прочитано " + read + " из " + expected);
+        }
+        return read;
+    }
+
+    public CustomUserCollection readColumnar(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            ColumnarUserFormat.Header header = readColumnarHeader(channel);
+            String[] names = readColumn(channel, header, ColumnarUserFormat.Column.NAME);
+            String[] domains = readColumn(channel, header, ColumnarUserFormat.Column.MAIL_DOMAIN);
+            String[] locals = readColumn(channel, header, ColumnarUserFormat.Column.MAIL_LOCAL);
+            String[] passwords = readColumn(channel, header, ColumnarUserFormat.Column.PASSWORD);
+
+            CustomUserCollection users = new CustomUserCollection(names.length);
+            for (int i = 0; i < names.length; i++) {
+                users.add(User.builder()
+                        .name(names[i])
+                        .password(passwords[i])
+                        .mail(locals[i] + "@" + domains[i])
+                        .build());
+            }
+
+            System.out.println("Загружено из колоночного файла: " + users.size());
+            return users;
+        }
+    }
+
+    // Значения одной колонки по записям; остальные колонки не читаются
+    public String[] readColumn(String filePath, ColumnarUserFormat.Column column) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            return readColumn(channel, readColumnarHeader(channel), column);
+        }
+    }
+
+    // Число записей на каждое значение колонки; для словарной колонки считается по id без декодирования строк
+    public Map<String, Long> countByColumn(String filePath, ColumnarUserFormat.Column column) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            ColumnarUserFormat.Header header = readColumnarHeader(channel);
+            ByteBuffer data = mapColumn(channel, header, column);
+            Map<String, Long> counts = new LinkedHashMap<>();
+            byte[] scratch = new byte[BinaryUserFormat.MAX_FIELD_BYTES];
+            if (!column.isDictionary()) {
+                for (long i = 0; i < header.getCount(); i++) {
+                    counts.merge(ColumnarUserFormat.readValue(data, scratch), 1L, Long::sum);
+                }
+                return counts;
+            }
+
+            String[] dictionary = readDictionary(data, scratch);
+            int width = data.get();
+            long[] idCounts = new long[dictionary.length];
+            for (long i = 0; i < header.getCount(); i++) {
+                idCounts[ColumnarUserFormat.readId(data, width)]++;
+            }
+            for (int id = 0; id < dictionary.length; id++) {
+                counts.put(dictionary[id], idCounts[id]);
+            }
+            return counts;
+        }
+    }
+
+    private ColumnarUserFormat.Header readColumnarHeader(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(ColumnarUserFormat.HEADER_SIZE);
+        readFully(channel, buffer, 0);
+        ColumnarUserFormat.Header header = ColumnarUserFormat.readHeader(buffer, channel.size());
+        if (header.getCount() > Integer.MAX_VALUE) {
+            throw new IOException("Слишком много записей для загрузки в память: " + header.getCount());
+        }
+        return header;
+    }
+
+    private String[] readColumn(FileChannel channel, ColumnarUserFormat.Header header,
+                                ColumnarUserFormat.Column column) throws IOException {
+        ByteBuffer data = mapColumn(channel, header, column);
+        byte[] scratch = new byte[BinaryUserFormat.MAX_FIELD_BYTES];
+        String[] values = new String[(int) header.getCount()];
+        try {
+            if (column.isDictionary()) {
+                // Записи с одинаковым значением получают один и тот же экземпляр строки из словаря
+                String[] dictionary = readDictionary(data, scratch);
+                int width = data.get();
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = dictionary[ColumnarUserFormat.readId(data, width)];
+                }
+            } else {
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = ColumnarUserFormat.readValue(data, scratch);
+                }
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IOException("Колонка " + column + " повреждена", e);
+        }
+        return values;
+    }
+
+    private String[] readDictionary(ByteBuffer data, byte[] scratch) {
+        String[] dictionary = new String[data.getInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = ColumnarUserFormat.readValue(data, scratch);
+        }
+        return dictionary;
+    }
+
+    private ByteBuffer mapColumn(FileChannel channel, ColumnarUserFormat.Header header,
+                                 ColumnarUserFormat.Column column) throws IOException {
+        long length = header.getLength(column);
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Колонка " + column + " слишком велика для отображения: " + length + " байт");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, header.getOffset(column), length);
+    }
+
+    // Дочитывает буфер до конца, сохраняя непрочитанный остаток
+    private void fill(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.compact();
+        int read = 0;
+        while (buffer.hasRemaining() && read >= 0) {
+            read = channel.read(buffer);
+        }
+        buffer.flip();
+    }
+
+    private void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) break;
+        }
+        buffer.flip();
+    }
+
+    // Файлы .gz распаковываются на лету, в памяти находится только текущий буфер
+    public BufferedReader openReader(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        InputStream input = GzipUserFiles.isGzip(path)
+                ? GzipUserFiles.openInput(path, READ_BUFFER_SIZE)
+                : Files.newInputStream(path);
+        return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+    }
+
     public boolean fileExists(String filePath) {
         return Files.exists(Paths.get(filePath));
     }
@@ -2,57 +2,399 @@ package Client.service.file;
 
 import Client.model.User;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 public class FileSaverService {
 
     private final FileWriterService fileWriter;
+    private final UserFileCompactor compactor = new UserFileCompactor();
+    private volatile CompactionPolicy compactionPolicy = CompactionPolicy.DISABLED;
+    private volatile UserFileCompactor.Key compactionKey = UserFileCompactor.Key.USER;
+    private final ShardedUserFiles shardedFiles = new ShardedUserFiles();
+    private volatile int shardCount = Runtime.getRuntime().availableProcessors();
+    private volatile ShardedUserFiles.Partitioning partitioning = ShardedUserFiles.Partitioning.CONTIGUOUS;
+
+    // Асинхронная запись: очередь запросов обслуживает один поток-писатель
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private final BlockingQueue<SaveRequest> queue = new LinkedBlockingQueue<>();
+    private Thread writerThread;
+    private boolean shutdown;
 
     public FileSaverService() {
-        this.fileWriter = new FileWriterService();
+        this.fileWriter = new FileWriterService(Runtime.getRuntime().availableProcessors());
     }
 
+    // Пользователи валидны по построению (UserBuilder), поэтому все режимы пишут без повторной проверки
     public void saveToFile(List<User> users, String filePath, SaveMode mode) throws IOException {
+        FileWriterService.requireNonNullUsers(users);
         switch (mode) {
             case OVERWRITE:
-                fileWriter.writeToFile(users, filePath);
+                fileWriter.writeToFile(users, filePath, true);
                 break;
             case APPEND:
-                fileWriter.appendToFile(users, filePath);
+                fileWriter.appendToFile(users, filePath, true);
                 break;
             case APPEND_WITH_TIMESTAMP:
                 appendWithTimestamp(users, filePath);
                 break;
+            case BINARY:
+                fileWriter.writeBinary(users, filePath, true);
+                break;
+            case GZIP:
+                fileWriter.writeToFile(users, GzipUserFiles.withExtension(filePath), true);
+                break;
+            case SHARDED:
+                saveSharded(users, filePath, false);
+                break;
+            case COLUMNAR:
+                fileWriter.writeColumnar(users, filePath);
+                break;
         }
     }
 
-    private void appendWithTimestamp(List<User> users, String filePath) throws IOException {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-        List<String> timestampedUsers = users.stream()
-                .map(user -> String.format("# %s%n%s", timestamp, formatUser(user)))
-                .toList();
+    // Параметры режима SHARDED
+    public void setSharding(int shardCount, ShardedUserFiles.Partitioning partitioning) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Число шардов должно быть положительным: " + shardCount);
+        }
+        this.shardCount = shardCount;
+        this.partitioning = partitioning;
+    }
+
+    private ShardedUserFiles.Manifest saveSharded(List<User> users, String filePath, boolean force) throws IOException {
+        ShardedUserFiles.Manifest manifest = shardedFiles.write(users, filePath, shardCount, partitioning, force);
+        System.out.println("Сохранено пользователей: " + users.size() + " в " + manifest.getShardCount() + " шардов");
+        System.out.println("Манифест: " + ShardedUserFiles.manifestPath(filePath).toAbsolutePath());
+        return manifest;
+    }
+
+    public CompletableFuture<SaveResult> saveAsync(List<User> users, String filePath, SaveMode mode) {
+        return saveAsync(users, filePath, mode, false);
+    }
+
+    // Политика проверяется потоком-писателем после каждой группы дописываний в файл
+    public void setCompactionPolicy(CompactionPolicy compactionPolicy) {
+        setCompactionPolicy(compactionPolicy, UserFileCompactor.Key.USER);
+    }
+
+    public void setCompactionPolicy(CompactionPolicy compactionPolicy, UserFileCompactor.Key key) {
+        this.compactionKey = key;
+        this.compactionPolicy = compactionPolicy;
+    }
+
+    public UserFileCompactor.Result compact(String filePath) throws IOException {
+        return compact(filePath, UserFileCompactor.Key.USER);
+    }
+
+    public UserFileCompactor.Result compact(String filePath, UserFileCompactor.Key key) throws IOException {
+        UserFileCompactor.Result result = compactor.compact(filePath, key);
+        System.out.println(" Файл компактирован: " + result);
+        return result;
+    }
+
+    public CompletableFuture<SaveResult> compactAsync(String filePath) {
+        return compactAsync(filePath, UserFileCompactor.Key.USER);
+    }
+
+    // Компактация идет через ту же очередь, поэтому не пересекается с дописываниями в этот файл
+    public CompletableFuture<SaveResult> compactAsync(String filePath, UserFileCompactor.Key key) {
+        return enqueue(SaveRequest.compaction(Paths.get(filePath), key));
+    }
+
+    // force = true: после записи данные сбрасываются на диск (fsync), один раз на группу дописываний
+    public CompletableFuture<SaveResult> saveAsync(List<User> users, String filePath, SaveMode mode, boolean force) {
+        String targetPath = mode == SaveMode.GZIP ? GzipUserFiles.withExtension(filePath) : filePath;
+        return enqueue(new SaveRequest(users, Paths.get(targetPath), mode, force, null));
+    }
+
+    private synchronized CompletableFuture<SaveResult> enqueue(SaveRequest request) {
+        if (shutdown) {
+            throw new IllegalStateException("Сервис сохранения остановлен");
+        }
+        if (writerThread == null) {
+            writerThread = new Thread(this::runWriter, "user-file-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+
+        queue.add(request);
+        return request.future;
+    }
+
+    // Дожидается записи всех уже поставленных в очередь запросов; запросы, до которых писатель
+    // не дошел за отведенное время, завершаются ошибкой, чтобы их future не остались незавершенными
+    public void shutdown() {
+        Thread thread;
+        synchronized (this) {
+            if (shutdown) return;
+            shutdown = true;
+            thread = writerThread;
+            if (thread == null) return;
+            queue.add(SaveRequest.POISON);
+        }
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(SHUTDOWN_TIMEOUT_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            failPending(new IllegalStateException("Сервис сохранения остановлен до выполнения запроса"));
+        }
+    }
+
+    // Каждый запрос забирает из очереди либо писатель, либо этот метод, поэтому он не выполняется дважды
+    private void failPending(Exception cause) {
+        List<SaveRequest> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        for (SaveRequest request : pending) {
+            if (request != SaveRequest.POISON) {
+                request.future.completeExceptionally(cause);
+            }
+        }
+        // Писатель остановится после текущей группы
+        queue.add(SaveRequest.POISON);
+    }
+
+    private void runWriter() {
+        List<SaveRequest> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch);
+
+            boolean stop = batch.remove(SaveRequest.POISON);
+            int i = 0;
+            while (i < batch.size()) {
+                int end = groupEnd(batch, i);
+                processGroup(batch.subList(i, end));
+                i = end;
+            }
+            batch.clear();
+
+            if (stop) return;
+        }
+    }
+
+    // Подряд идущие дописывания в один и тот же файл объединяются в одну запись
+    private int groupEnd(List<SaveRequest> batch, int start) {
+        SaveRequest first = batch.get(start);
+        int end = start + 1;
+        if (!first.isAppend()) return end;
+        while (end < batch.size() && batch.get(end).isAppend() && batch.get(end).path.equals(first.path)) {
+            end++;
+        }
+        return end;
+    }
+
+    private void processGroup(List<SaveRequest> group) {
+        try {
+            if (group.get(0).compaction) {
+                SaveRequest request = group.get(0);
+                request.complete(compactor.compact(request.path.toString(), request.compactionKey).getBytesAfter());
+            } else if (group.get(0).isAppend()) {
+                appendGroup(group);
+                compactIfNeeded(group.get(0).path);
+            } else if (group.get(0).mode == SaveMode.SHARDED) {
+                SaveRequest request = group.get(0);
+                FileWriterService.requireNonNullUsers(request.users);
+                request.complete(saveSharded(request.users, request.path.toString(), request.force).getTotalBytes());
+            } else {
+                SaveRequest request = group.get(0);
+                saveToFile(request.users, request.path.toString(), request.mode);
+                if (request.force) {
+                    try (FileChannel channel = FileChannel.open(request.path, StandardOpenOption.WRITE)) {
+                        channel.force(false);
+                    }
+                }
+                request.complete(Files.size(request.path));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (SaveRequest request : group) {
+                request.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void appendGroup(List<SaveRequest> requests) throws IOException {
+        // Запрос с пропусками завершается ошибкой сам и не мешает остальным запросам группы
+        List<SaveRequest> group = new ArrayList<>(requests.size());
+        boolean force = false;
+        for (SaveRequest request : requests) {
+            try {
+                FileWriterService.requireNonNullUsers(request.users);
+            } catch (RuntimeException e) {
+                request.future.completeExceptionally(e);
+                continue;
+            }
+            group.add(request);
+            force |= request.force;
+        }
+        if (group.isEmpty()) {
+            return;
+        }
 
-        Path path = Paths.get(filePath);
+        Path path = group.get(0).path;
+        boolean newFile = !Files.exists(path);
+        long sizeBefore = newFile ? 0 : Files.size(path);
+        long[] written = new long[group.size()];
 
-        if (path.getParent() != null && !Files.exists(path.getParent())) {
-            Files.createDirectories(path.getParent());
+        try {
+            try (UserFileWriter writer = UserFileWriter.open(path, true)) {
+                if (newFile && group.get(0).mode == SaveMode.APPEND) {
+                    writer.writeLine(FileWriterService.FILE_HEADER);
+                }
+                byte[] timestampLine = UserFileWriter.encodeLine("# " + currentTimestamp());
+
+                for (int i = 0; i < group.size(); i++) {
+                    SaveRequest request = group.get(i);
+                    long before = writer.getBytesWritten();
+                    for (User user : request.users) {
+                        if (request.mode == SaveMode.APPEND_WITH_TIMESTAMP) {
+                            writer.writeRaw(timestampLine);
+                        }
+                        writer.writeUser(user);
+                    }
+                    written[i] = writer.getBytesWritten() - before;
+                }
+
+                if (force) {
+                    writer.force();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Вся группа завершается ошибкой, поэтому уже дописанная ее часть отбрасывается
+            try {
+                if (newFile) {
+                    Files.deleteIfExists(path);
+                } else {
+                    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                        channel.truncate(sizeBefore);
+                    }
+                }
+            } catch (IOException rollback) {
+                e.addSuppressed(rollback);
+            }
+            throw e;
+        }
+
+        for (int i = 0; i < group.size(); i++) {
+            group.get(i).complete(written[i]);
         }
+    }
 
-        Files.write(path, timestampedUsers, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    private void compactIfNeeded(Path path) {
+        CompactionPolicy policy = compactionPolicy;
+        try {
+            if (policy.shouldCompact(Files.size(path), compactor.readCheckpoint(path.toString()))) {
+                compact(path.toString(), compactionKey);
+            }
+        } catch (IOException e) {
+            // Дописывание уже выполнено; неудачная компактация повторится после следующей группы
+            System.err.println("Не удалось компактировать файл " + path + ": " + e.getMessage());
+        }
+    }
+
+    private void appendWithTimestamp(List<User> users, String filePath) throws IOException {
+        // Метка времени форматируется и кодируется один раз на всю партию
+        byte[] timestampLine = UserFileWriter.encodeLine("# " + currentTimestamp());
+
+        try (UserFileWriter writer = UserFileWriter.open(Paths.get(filePath), true)) {
+            for (User user : users) {
+                writer.writeRaw(timestampLine);
+                writer.writeUser(user);
+            }
+        }
 
         System.out.println(" Данные добавлены с временной меткой. Всего: " + users.size());
     }
 
-    private String formatUser(User user) {
-        return String.format("%s;%s;%s", user.getName(), user.getPassword(), user.getMail());
+    private String currentTimestamp() {
+        return LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
     }
 
     public enum SaveMode {
         OVERWRITE,
         APPEND,
-        APPEND_WITH_TIMESTAMP
+        APPEND_WITH_TIMESTAMP,
+        BINARY,
+        // Переписать файл в сжатом виде; к пути добавляется .gz
+        GZIP,
+        // Несколько файлов путь.part-NNNN, записываемых параллельно, и манифест
+        SHARDED,
+        // Колоночный формат: имена и домены почты словарями, колонки читаются по отдельности
+        COLUMNAR
+    }
+
+    public static final class SaveResult {
+        private final long bytesWritten;
+        private final long latencyNanos;
+
+        private SaveResult(long bytesWritten, long latencyNanos) {
+            this.bytesWritten = bytesWritten;
+            this.latencyNanos = latencyNanos;
+        }
+
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        // Время от постановки в очередь до завершения записи
+        public long getLatencyMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+        }
+
+        @Override
+        public String toString() {
+            return "SaveResult{bytes=" + bytesWritten + ", latency=" + getLatencyMillis() + " мс}";
+        }
+    }
+
+    private static final class SaveRequest {
+        private static final SaveRequest POISON = new SaveRequest(List.of(), null, null, false, null);
+
+        private final List<User> users;
+        private final Path path;
+        private final SaveMode mode;
+        private final boolean force;
+        private final boolean compaction;
+        // null для запросов записи
+        private final UserFileCompactor.Key compactionKey;
+        private final long createdAt = System.nanoTime();
+        private final CompletableFuture<SaveResult> future = new CompletableFuture<>();
+
+        private SaveRequest(List<User> users, Path path, SaveMode mode, boolean force,
+                            UserFileCompactor.Key compactionKey) {
+            this.users = users;
+            this.path = path;
+            this.mode = mode;
+            this.force = force;
+            this.compaction = compactionKey != null;
+            this.compactionKey = compactionKey;
+        }
+
+        private static SaveRequest compaction(Path path, UserFileCompactor.Key key) {
+            return new SaveRequest(List.of(), path, null, false, key);
+        }
+
+        private boolean isAppend() {
+            return mode == SaveMode.APPEND || mode == SaveMode.APPEND_WITH_TIMESTAMP;
+        }
+
+        private void complete(long bytesWritten) {
+            future.complete(new SaveResult(bytesWritten, System.nanoTime() - createdAt));
+        }
     }
-}
\ No newline at end of file
+}
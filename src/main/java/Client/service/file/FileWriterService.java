@@ -1,73 +1,382 @@
 package Client.service.file;
 
 import Client.model.User;
+import Client.service.validation.BatchValidationResult;
 import Client.service.validation.UserValidator;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class FileWriterService {
 
+    public static final String FILE_HEADER = "# Файл с пользователями (name;password;mail)";
+
+    private static final int BINARY_BUFFER_SIZE = 1024 * 1024;
+    // Пользователей в одном фрагменте параллельной записи
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    private final int threadCount;
+
+    public FileWriterService() {
+        this(1);
+    }
+
+    // threadCount > 1: большие списки проверяются и кодируются фрагментами на рабочих потоках
+    public FileWriterService(int threadCount) {
+        this.threadCount = Math.max(1, threadCount);
+    }
+
     public void writeToFile(List<User> users, String filePath) throws IOException {
+        writeToFile(users, filePath, false);
+    }
+
+    // trusted = true: пользователи созданы через UserBuilder и уже проверены, повторная проверка пропускается
+    public void writeToFile(List<User> users, String filePath, boolean trusted) throws IOException {
+        Path path = Paths.get(filePath);
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+
+        // Проверка идет вместе с записью, поэтому пишем во временный файл: при ошибке прежний файл не меняется
+        Path temp = createTempSibling(path, "write-");
+        try {
+            try (UserFileWriter writer = UserFileWriter.open(temp, false)) {
+                writeUsers(writer, users, trusted);
+            }
+            moveIntoPlace(temp, path);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        System.out.println("Сохранено пользователей: " + users.size());
+        System.out.println("Файл: " + path.toAbsolutePath());
+    }
+
+    public void appendToFile(List<User> users, String filePath) throws IOException {
+        appendToFile(users, filePath, false);
+    }
+
+    public void appendToFile(List<User> users, String filePath, boolean trusted) throws IOException {
+        Path path = Paths.get(filePath);
+        boolean newFile = !Files.exists(path);
+        long sizeBefore = newFile ? 0 : Files.size(path);
+
+        try {
+            try (UserFileWriter writer = UserFileWriter.open(path, true)) {
+                if (newFile) {
+                    writer.writeLine(FILE_HEADER);
+                }
+                writeUsers(writer, users, trusted);
+            }
+        } catch (RuntimeException e) {
+            // Уже дописанная часть партии отбрасывается
+            if (newFile) {
+                Files.deleteIfExists(path);
+            } else {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(sizeBefore);
+                }
+            }
+            throw e;
+        }
+
+        System.out.println("Добавлено пользователей: " + users.size());
+        System.out.println("Файл: " + path.toAbsolutePath());
+    }
+
+    private static void moveIntoPlace(Path temp, Path path) throws IOException {
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Временный файл рядом с path для атомарной замены. Files.createTempFile создает файл с правами 0600,
+    // и замена сбрасывала бы права исходного файла, поэтому права берутся по умолчанию или копируются с path.
+    static Path createTempSibling(Path path, String prefix) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        while (true) {
+            Path temp = parent.resolve(prefix + Long.toUnsignedString(ThreadLocalRandom.current().nextLong())
+                    + "-" + path.getFileName());
+            try {
+                Files.createFile(temp);
+            } catch (FileAlreadyExistsException e) {
+                continue;
+            }
+            try {
+                if (Files.exists(path) && Files.getFileAttributeView(path, PosixFileAttributeView.class) != null) {
+                    Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(path));
+                }
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+            return temp;
+        }
+    }
+
+    // Фрагмент проверяется пакетом и сразу кодируется, пока его пользователи еще в кэше
+    private void writeUsers(UserFileWriter writer, List<User> users, boolean trusted) throws IOException {
+        if (threadCount > 1 && users.size() > CHUNK_SIZE) {
+            writeUsersParallel(writer, users, trusted);
+            return;
+        }
+        for (int from = 0; from < users.size(); from += CHUNK_SIZE) {
+            List<User> chunk = users.subList(from, Math.min(users.size(), from + CHUNK_SIZE));
+            if (!trusted) {
+                validateChunk(chunk, false);
+            }
+            for (User user : chunk) {
+                writer.writeUser(user);
+            }
+        }
+    }
+
+    // Фрагменты проверяются и кодируются в отдельные буферы на рабочих потоках, запись идет в порядке списка.
+    // В работе не больше 2 * threadCount фрагментов, чтобы закодированный файл не накапливался в памяти.
+    private void writeUsersParallel(UserFileWriter writer, List<User> users, boolean trusted) throws IOException {
+        int chunkCount = (users.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threadCount, chunkCount));
+        Deque<Future<EncodedChunk>> pending = new ArrayDeque<>();
+        try {
+            int next = 0;
+            while (next < chunkCount || !pending.isEmpty()) {
+                while (next < chunkCount && pending.size() < 2 * threadCount) {
+                    List<User> chunk = users.subList(next * CHUNK_SIZE, Math.min(users.size(), (next + 1) * CHUNK_SIZE));
+                    pending.add(executor.submit(() -> encodeChunk(chunk, trusted)));
+                    next++;
+                }
+                EncodedChunk encoded = pending.poll().get();
+                writer.writeRaw(encoded.bytes, encoded.length);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Запись прервана", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException("Ошибка кодирования пользователей: " + cause.getMessage(), cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
+    private EncodedChunk encodeChunk(List<User> users, boolean trusted) {
+        if (!trusted) {
+            validateChunk(users, false);
+        }
+        byte[] bytes = new byte[64 * users.size()];
+        int length = 0;
         for (User user : users) {
-            if (!UserValidator.isValidUser(user.getName(), user.getPassword(), user.getMail())) {
-                throw new IllegalArgumentException("Попытка сохранить невалидного пользователя: " + user);
+            int maxSize = UserFileWriter.maxEncodedSize(user);
+            if (bytes.length - length < maxSize) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + maxSize));
             }
+            length = UserFileWriter.encodeUser(user, bytes, length);
+        }
+        return new EncodedChunk(bytes, length);
+    }
+
+    // Сообщение строится только для первого невалидного пользователя
+    private void validateChunk(List<User> users, boolean parallel) {
+        BatchValidationResult result = UserValidator.validateBatch(users.size(), i -> users.get(i).getName(),
+                i -> users.get(i).getPassword(), i -> users.get(i).getMail(), parallel);
+        int invalid = result.firstInvalid();
+        if (invalid >= 0) {
+            throw new IllegalArgumentException("Попытка сохранить невалидного пользователя: " + users.get(invalid)
+                    + " (" + result.getMessage(invalid) + ")");
         }
+    }
 
-        List<String> lines = users.stream()
-                .map(this::formatUser)
-                .toList();
+    // Для доверенной записи: пользователи уже проверены при создании, отсеиваются только пропуски в списке
+    static void requireNonNullUsers(List<User> users) {
+        for (int i = 0; i < users.size(); i++) {
+            if (users.get(i) == null) {
+                throw new IllegalArgumentException("Попытка сохранить null вместо пользователя (позиция " + i + ")");
+            }
+        }
+    }
 
+    public void writeBinary(List<User> users, String filePath, boolean withIndex) throws IOException {
         Path path = Paths.get(filePath);
 
         if (path.getParent() != null) {
             Files.createDirectories(path.getParent());
         }
 
-        Files.write(path, lines, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        long[] offsets = withIndex ? new long[users.size()] : null;
+        ByteBuffer buffer = ByteBuffer.allocate(BINARY_BUFFER_SIZE);
 
-        System.out.println("Сохранено пользователей: " + users.size());
-        System.out.println("Файл: " + path.toAbsolutePath());
-    }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
 
-    public void appendToFile(List<User> users, String filePath) throws IOException {
-        for (User user : users) {
-            if (!UserValidator.isValidUser(user.getName(), user.getPassword(), user.getMail())) {
-                throw new IllegalArgumentException("Попытка сохранить невалидного пользователя: " + user);
+            // Заголовок перезаписывается в конце, когда известно смещение индекса
+            BinaryUserFormat.writeHeader(buffer, users.size(), 0);
+            long position = BinaryUserFormat.HEADER_SIZE;
+
+            for (int i = 0; i < users.size(); i++) {
+                User user = users.get(i);
+                byte[] name = user.getName().getBytes(StandardCharsets.UTF_8);
+                byte[] password = user.getPassword().getBytes(StandardCharsets.UTF_8);
+                byte[] mail = user.getMail().getBytes(StandardCharsets.UTF_8);
+
+                int size = BinaryUserFormat.recordSize(name, password, mail);
+                if (buffer.remaining() < size) {
+                    flush(channel, buffer);
+                }
+                if (offsets != null) {
+                    offsets[i] = position;
+                }
+                BinaryUserFormat.writeRecord(buffer, name, password, mail);
+                position += size;
+            }
+
+            long indexOffset = 0;
+            if (offsets != null && offsets.length > 0) {
+                indexOffset = position;
+                for (long offset : offsets) {
+                    if (buffer.remaining() < Long.BYTES) {
+                        flush(channel, buffer);
+                    }
+                    buffer.putLong(offset);
+                }
+            }
+            flush(channel, buffer);
+
+            ByteBuffer header = ByteBuffer.allocate(BinaryUserFormat.HEADER_SIZE);
+            BinaryUserFormat.writeHeader(header, users.size(), indexOffset);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
             }
         }
 
-        List<String> lines = users.stream()
-                .map(this::formatUser)
-                .toList();
+        System.out.println("Сохранено пользователей (бинарный формат): " + users.size());
+        System.out.println("Файл: " + path.toAbsolutePath());
+    }
 
+    // Колоночный формат (см. ColumnarUserFormat): имена и домены почты пишутся словарями
+    public void writeColumnar(List<User> users, String filePath) throws IOException {
         Path path = Paths.get(filePath);
 
-        if (path.getParent() != null && !Files.exists(path.getParent())) {
+        if (path.getParent() != null) {
             Files.createDirectories(path.getParent());
         }
 
-        if (!Files.exists(path)) {
-            List<String> header = List.of("# Файл с пользователями (name;password;mail)");
-            Files.write(path, header, StandardOpenOption.CREATE);
+        // Словари строятся за один проход; id назначаются в порядке первого появления
+        Map<String, Integer> names = new LinkedHashMap<>();
+        Map<String, Integer> domains = new LinkedHashMap<>();
+        int[] nameIds = new int[users.size()];
+        int[] domainIds = new int[users.size()];
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            String mail = user.getMail();
+            nameIds[i] = names.computeIfAbsent(user.getName(), key -> names.size());
+            domainIds[i] = domains.computeIfAbsent(mail.substring(mail.indexOf('@') + 1), key -> domains.size());
         }
 
-        Files.write(path, lines, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        int columns = ColumnarUserFormat.Column.values().length;
+        long[] offsets = new long[columns];
+        long[] lengths = new long[columns];
+        ByteBuffer buffer = ByteBuffer.allocate(BINARY_BUFFER_SIZE);
 
-        System.out.println("Добавлено пользователей: " + users.size());
+        // Пишем во временный файл: при ошибке посередине прежний файл остается целым
+        Path temp = createTempSibling(path, "columnar-");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+
+                // Заголовок с каталогом колонок перезаписывается в конце
+                buffer.put(new byte[ColumnarUserFormat.HEADER_SIZE]);
+                for (ColumnarUserFormat.Column column : ColumnarUserFormat.Column.values()) {
+                    long start = channel.position() + buffer.position();
+                    switch (column) {
+                        case NAME -> writeDictionaryColumn(channel, buffer, names.keySet(), nameIds);
+                        case MAIL_DOMAIN -> writeDictionaryColumn(channel, buffer, domains.keySet(), domainIds);
+                        case MAIL_LOCAL -> {
+                            for (User user : users) {
+                                String mail = user.getMail();
+                                writeColumnValue(channel, buffer, mail.substring(0, mail.indexOf('@')));
+                            }
+                        }
+                        case PASSWORD -> {
+                            for (User user : users) {
+                                writeColumnValue(channel, buffer, user.getPassword());
+                            }
+                        }
+                    }
+                    offsets[column.ordinal()] = start;
+                    lengths[column.ordinal()] = channel.position() + buffer.position() - start;
+                }
+                flush(channel, buffer);
+
+                ByteBuffer header = ByteBuffer.allocate(ColumnarUserFormat.HEADER_SIZE);
+                ColumnarUserFormat.writeHeader(header, users.size(), offsets, lengths);
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+            }
+            moveIntoPlace(temp, path);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        System.out.println("Сохранено пользователей (колоночный формат): " + users.size()
+                + ", имен в словаре: " + names.size() + ", доменов: " + domains.size());
         System.out.println("Файл: " + path.toAbsolutePath());
     }
 
-    private String formatUser(User user) {
-        return String.format("%s;%s;%s",
-                user.getName(),
-                user.getPassword(),
-                user.getMail());
+    private void writeDictionaryColumn(FileChannel channel, ByteBuffer buffer, Collection<String> dictionary,
+                                       int[] ids) throws IOException {
+        ensureRemaining(channel, buffer, Integer.BYTES);
+        buffer.putInt(dictionary.size());
+        for (String value : dictionary) {
+            writeColumnValue(channel, buffer, value);
+        }
+        int width = ColumnarUserFormat.idWidth(dictionary.size());
+        ensureRemaining(channel, buffer, 1);
+        buffer.put((byte) width);
+        for (int id : ids) {
+            ensureRemaining(channel, buffer, width);
+            ColumnarUserFormat.writeId(buffer, id, width);
+        }
+    }
+
+    private void writeColumnValue(FileChannel channel, ByteBuffer buffer, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureRemaining(channel, buffer, Short.BYTES + bytes.length);
+        ColumnarUserFormat.writeValue(buffer, bytes);
     }
 
+    private void ensureRemaining(FileChannel channel, ByteBuffer buffer, int size) throws IOException {
+        if (buffer.remaining() < size) {
+            flush(channel, buffer);
+        }
+    }
+
+    private void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
 
     public boolean isWritable(String filePath) {
         Path path = Paths.get(filePath);
@@ -79,4 +388,14 @@ public class FileWriterService {
 
         return Files.isWritable(path);
     }
+
+    private static final class EncodedChunk {
+        private final byte[] bytes;
+        private final int length;
+
+        private EncodedChunk(byte[] bytes, int length) {
+            this.bytes = bytes;
+            this.length = length;
+        }
+    }
 }
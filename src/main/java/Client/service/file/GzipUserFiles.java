@@ -0,0 +1,182 @@
+package Client.service.file;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+// Сжатые файлы пользователей: последовательность независимых gzip-членов с целыми строками
+public final class GzipUserFiles {
+
+    public static final String EXTENSION = ".gz";
+
+    private static final int HEADER_SIZE = 20;
+    private static final int TRAILER_SIZE = 8;
+    private static final byte SUBFIELD_ID1 = 'P';
+    private static final byte SUBFIELD_ID2 = 'U';
+
+    private GzipUserFiles() {
+    }
+
+    public static boolean isGzip(Path path) {
+        return path.getFileName() != null && path.getFileName().toString().endsWith(EXTENSION);
+    }
+
+    public static String withExtension(String filePath) {
+        return filePath.endsWith(EXTENSION) ? filePath : filePath + EXTENSION;
+    }
+
+    // Потоковая распаковка: GZIPInputStream сам переходит от одного члена к следующему
+    public static InputStream openInput(Path path, int bufferSize) throws IOException {
+        return new GZIPInputStream(Files.newInputStream(path), bufferSize);
+    }
+
+    // Распаковка части файла [start, end), которая начинается и заканчивается на границе членов
+    static InputStream openRange(FileChannel channel, long start, long end, int bufferSize) throws IOException {
+        return new GZIPInputStream(new BufferedInputStream(new RangeInputStream(channel, start, end), bufferSize),
+                bufferSize);
+    }
+
+    // Сырые байты части файла [start, end) без распаковки
+    static InputStream openRawRange(FileChannel channel, long start, long end, int bufferSize) {
+        return new BufferedInputStream(new RangeInputStream(channel, start, end), bufferSize);
+    }
+
+    // Смещения начала каждого члена и размер файла последним элементом; null, если размеры членов не записаны
+    static long[] memberOffsets(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> offsets = new ArrayList<>();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        long position = 0;
+        while (position < size) {
+            header.clear();
+            while (header.hasRemaining()) {
+                if (channel.read(header, position + header.position()) < 0) return null;
+            }
+            long memberSize = memberSize(header);
+            if (memberSize <= 0 || position + memberSize > size) return null;
+            offsets.add(position);
+            position += memberSize;
+        }
+        offsets.add(size);
+
+        long[] result = new long[offsets.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = offsets.get(i);
+        }
+        return result;
+    }
+
+    // Заголовок члена (20 байт, little-endian): 1F 8B 08 | FLG с FEXTRA | MTIME, XFL, OS | XLEN = 8 |
+    // подполе "PU" длиной 4 с полным размером члена u32 — границы членов находятся без распаковки
+    private static long memberSize(ByteBuffer header) {
+        if ((header.get(0) & 0xFF) != 0x1F || (header.get(1) & 0xFF) != 0x8B || header.get(2) != 8) return -1;
+        if ((header.get(3) & 0x04) == 0 || header.getShort(10) != 8) return -1;
+        if (header.get(12) != SUBFIELD_ID1 || header.get(13) != SUBFIELD_ID2 || header.getShort(14) != 4) return -1;
+        return header.getInt(16) & 0xFFFFFFFFL;
+    }
+
+    // Кодирует блок в один gzip-член; экземпляр переиспользуется, не потокобезопасен
+    static final class MemberEncoder {
+        private final Deflater deflater;
+        private final CRC32 crc = new CRC32();
+        private byte[] output = new byte[64 * 1024];
+
+        MemberEncoder() {
+            this(Deflater.DEFAULT_COMPRESSION);
+        }
+
+        // При NO_COMPRESSION размер члена зависит только от длины данных
+        MemberEncoder(int level) {
+            this.deflater = new Deflater(level, true);
+        }
+
+        // Возвращает длину члена; сам член лежит в getOutput()[0, length)
+        int encode(byte[] data, int offset, int length) {
+            deflater.reset();
+            deflater.setInput(data, offset, length);
+            deflater.finish();
+            crc.reset();
+            crc.update(data, offset, length);
+
+            int position = HEADER_SIZE;
+            while (!deflater.finished()) {
+                if (position == output.length) {
+                    output = Arrays.copyOf(output, output.length * 2);
+                }
+                position += deflater.deflate(output, position, output.length - position);
+            }
+            if (output.length - position < TRAILER_SIZE) {
+                output = Arrays.copyOf(output, position + TRAILER_SIZE);
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(output).order(ByteOrder.LITTLE_ENDIAN);
+            int memberSize = position + TRAILER_SIZE;
+            buffer.putInt(position, (int) crc.getValue());
+            buffer.putInt(position + 4, length);
+
+            buffer.put(0, (byte) 0x1F).put(1, (byte) 0x8B).put(2, (byte) 8).put(3, (byte) 0x04);
+            buffer.putInt(4, 0);
+            buffer.put(8, (byte) 0).put(9, (byte) 0xFF);
+            buffer.putShort(10, (short) 8);
+            buffer.put(12, SUBFIELD_ID1).put(13, SUBFIELD_ID2);
+            buffer.putShort(14, (short) 4);
+            buffer.putInt(16, memberSize);
+            return memberSize;
+        }
+
+        byte[] getOutput() {
+            return output;
+        }
+
+        void end() {
+            deflater.end();
+        }
+    }
+
+    // Позиционное чтение диапазона канала: несколько потоков читают один FileChannel без общей позиции
+    private static final class RangeInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+
+        private RangeInputStream(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position >= end) return -1;
+            int toRead = (int) Math.min(len, end - position);
+            int read = channel.read(ByteBuffer.wrap(b, off, toRead), position);
+            if (read < 0) return -1;
+            position += read;
+            return read;
+        }
+
+        // GZIPInputStream проверяет available(), чтобы решить, читать ли следующий член
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, end - position);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package Client.service.file;
+
+import Client.service.validation.BatchValidationResult;
+import Client.service.validation.UserValidator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Итог загрузки: счетчики ошибок по категориям и примеры строк с номерами
+public class LoadReport {
+
+    public static final int DEFAULT_MAX_EXAMPLES = 10;
+
+    private static final int MAX_EXAMPLE_LENGTH = 200;
+
+    public enum Category {
+        FORMAT("неверный формат, ожидается name;password;mail"),
+        NAME("невалидное имя"),
+        PASSWORD("невалидный пароль"),
+        MAIL("невалидный email"),
+        CREATE("ошибка создания пользователя");
+
+        private final String description;
+
+        Category(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private final LongAdder lines = new LongAdder();
+    private final LongAdder valid = new LongAdder();
+    private final LongAdder[] errors = new LongAdder[Category.values().length];
+    private final int maxExamples;
+    // Фрагмент разбирается по порядку строк, поэтому первые ошибки файла — это первые ошибки
+    // первых фрагментов; каждый фрагмент хранит не больше maxExamples своих первых примеров
+    private final Map<Integer, ChunkExamples> examples = new ConcurrentHashMap<>();
+    // Параллельный загрузчик знает номера строк только внутри своего фрагмента
+    private volatile long[] chunkLineBases = {0};
+
+    public LoadReport() {
+        this(DEFAULT_MAX_EXAMPLES);
+    }
+
+    public LoadReport(int maxExamples) {
+        for (int i = 0; i < errors.length; i++) {
+            errors[i] = new LongAdder();
+        }
+        this.maxExamples = Math.max(0, maxExamples);
+    }
+
+    public static Category categoryOf(int parserStatus) {
+        switch (parserStatus) {
+            case UserLineParser.ERROR_FORMAT:
+                return Category.FORMAT;
+            case UserLineParser.ERROR_NAME:
+                return Category.NAME;
+            case UserLineParser.ERROR_PASSWORD:
+                return Category.PASSWORD;
+            case UserLineParser.ERROR_MAIL:
+                return Category.MAIL;
+            default:
+                throw new IllegalArgumentException("Статус разбора не является ошибкой: " + parserStatus);
+        }
+    }
+
+    // Категория по коду ошибки пакетной проверки UserValidator.validateBatch
+    public static Category categoryOfCode(byte errorCode) {
+        if (BatchValidationResult.isNameError(errorCode)) return Category.NAME;
+        if (BatchValidationResult.isPasswordError(errorCode)) return Category.PASSWORD;
+        if (BatchValidationResult.isMailError(errorCode)) return Category.MAIL;
+        throw new IllegalArgumentException("Код проверки не является ошибкой: " + errorCode);
+    }
+
+    public void addLines(long count) {
+        lines.add(count);
+    }
+
+    public void addValid(long count) {
+        valid.add(count);
+    }
+
+    public void recordError(Category category, long lineNumber, CharSequence line) {
+        recordError(category, 0, lineNumber, line);
+    }
+
+    public void recordError(Category category, int chunk, long lineNumber, CharSequence line) {
+        errors[category.ordinal()].increment();
+        ChunkExamples chunkExamples = chunkExamples(chunk);
+        if (chunkExamples != null && chunkExamples.accepts(lineNumber)) {
+            chunkExamples.add(new Example(category, chunk, lineNumber, truncate(line.toString())));
+        }
+    }
+
+    public void recordError(Category category, int chunk, long lineNumber, byte[] line, int from, int to) {
+        errors[category.ordinal()].increment();
+        ChunkExamples chunkExamples = chunkExamples(chunk);
+        // Строка декодируется, только если пример попадет в отчет
+        if (chunkExamples != null && chunkExamples.accepts(lineNumber)) {
+            String text = new String(line, from, Math.min(to - from, MAX_EXAMPLE_LENGTH * 3), StandardCharsets.UTF_8);
+            chunkExamples.add(new Example(category, chunk, lineNumber, truncate(text)));
+        }
+    }
+
+    // Номер первой строки каждого фрагмента минус один; вызывается после завершения разбора
+    public void setChunkLineBases(long[] chunkLineBases) {
+        this.chunkLineBases = chunkLineBases.clone();
+    }
+
+    public long getLines() {
+        return lines.sum();
+    }
+
+    public long getValid() {
+        return valid.sum();
+    }
+
+    public long getErrors(Category category) {
+        return errors[category.ordinal()].sum();
+    }
+
+    public long getInvalid() {
+        long total = 0;
+        for (LongAdder counter : errors) {
+            total += counter.sum();
+        }
+        return total;
+    }
+
+    // Первые maxExamples ошибок файла в порядке номеров строк
+    public List<Example> getExamples() {
+        List<Example> result = new ArrayList<>();
+        for (ChunkExamples chunkExamples : new TreeMap<>(examples).values()) {
+            result.addAll(chunkExamples.snapshot());
+            if (result.size() >= maxExamples) {
+                break;
+            }
+        }
+        return result.size() > maxExamples ? new ArrayList<>(result.subList(0, maxExamples)) : result;
+    }
+
+    public long lineNumberOf(Example example) {
+        long[] bases = chunkLineBases;
+        long base = example.chunk < bases.length ? bases[example.chunk] : 0;
+        return base + example.lineNumber;
+    }
+
+    public void print() {
+        System.out.println("Результат чтения:");
+        System.out.println("  - Всего строк: " + getLines());
+        System.out.println("  - Успешно загружено: " + getValid());
+        System.out.println("  - Пропущено (ошибки): " + getInvalid());
+        printErrors();
+    }
+
+    // Ошибки по категориям и примеры, без общей сводки
+    public void printErrors() {
+        for (Category category : Category.values()) {
+            long count = getErrors(category);
+            if (count > 0) {
+                System.out.println("    * " + category.getDescription() + ": " + count);
+            }
+        }
+
+        List<Example> list = getExamples();
+        if (!list.isEmpty()) {
+            System.err.println("Первые ошибки (" + list.size() + " из " + getInvalid() + "):");
+            for (Example example : list) {
+                System.err.println("  Строка " + lineNumberOf(example) + ": " + describe(example) + " | " + example.line);
+            }
+        }
+    }
+
+    // Подробное сообщение валидатора считается только для выводимых примеров
+    private String describe(Example example) {
+        if (example.category == Category.FORMAT || example.category == Category.CREATE) {
+            return example.category.getDescription();
+        }
+        UserLineParser parser = new UserLineParser();
+        if (parser.parse(example.line) != UserLineParser.OK) {
+            return example.category.getDescription();
+        }
+        switch (example.category) {
+            case NAME:
+                return UserValidator.getNameErrorMessage(parser.getName());
+            case PASSWORD:
+                return UserValidator.getPasswordErrorMessage(parser.getPassword());
+            default:
+                return UserValidator.getMailErrorMessage(parser.getMail());
+        }
+    }
+
+    private ChunkExamples chunkExamples(int chunk) {
+        if (maxExamples == 0) {
+            return null;
+        }
+        return examples.computeIfAbsent(chunk, key -> new ChunkExamples(maxExamples));
+    }
+
+    private static String truncate(String line) {
+        return line.length() > MAX_EXAMPLE_LENGTH ? line.substring(0, MAX_EXAMPLE_LENGTH) + "..." : line;
+    }
+
+    // Первые примеры одного фрагмента; ошибки фрагмента могут приходить из нескольких потоков проверки
+    private static final class ChunkExamples {
+        private final int capacity;
+        private final List<Example> examples = new ArrayList<>();
+
+        private ChunkExamples(int capacity) {
+            this.capacity = capacity;
+        }
+
+        synchronized boolean accepts(long lineNumber) {
+            return examples.size() < capacity || lineNumber < examples.get(examples.size() - 1).lineNumber;
+        }
+
+        synchronized void add(Example example) {
+            int index = examples.size();
+            while (index > 0 && examples.get(index - 1).lineNumber > example.lineNumber) {
+                index--;
+            }
+            examples.add(index, example);
+            if (examples.size() > capacity) {
+                examples.remove(examples.size() - 1);
+            }
+        }
+
+        synchronized List<Example> snapshot() {
+            return new ArrayList<>(examples);
+        }
+    }
+
+    public static final class Example {
+        private final Category category;
+        private final int chunk;
+        private final long lineNumber;
+        private final String line;
+
+        private Example(Category category, int chunk, long lineNumber, String line) {
+            this.category = category;
+            this.chunk = chunk;
+            this.lineNumber = lineNumber;
+            this.line = line;
+        }
+
+        public Category getCategory() {
+            return category;
+        }
+
+        public String getLine() {
+            return line;
+        }
+    }
+}
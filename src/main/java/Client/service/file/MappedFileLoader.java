@@ -0,0 +1,355 @@
+package Client.service.file;
+
+import Client.model.User;
+import Client.service.validation.BatchValidationResult;
+import Client.service.validation.UserValidator;
+import Client.service.validation.ValidationCache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+public class MappedFileLoader {
+
+    // Ограничение на размер одного отображения: MappedByteBuffer адресуется int
+    private static final long MAX_CHUNK_SIZE = 256L * 1024 * 1024;
+    private static final int BOUNDARY_SCAN_SIZE = 8 * 1024;
+    private static final int INFLATE_BUFFER_SIZE = 64 * 1024;
+    private static final int VALIDATION_BATCH_SIZE = 1024;
+
+    private final int threadCount;
+    private final ValidationCache validationCache;
+    private LoadReport lastReport = new LoadReport();
+
+    public MappedFileLoader() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public MappedFileLoader(int threadCount) {
+        this(threadCount, null);
+    }
+
+    // Кэш общий для всех потоков разбора; null — проверка без кэша
+    public MappedFileLoader(int threadCount, ValidationCache validationCache) {
+        this.threadCount = Math.max(1, threadCount);
+        this.validationCache = validationCache;
+    }
+
+    public List<User> load(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        LoadReport report = new LoadReport();
+        lastReport = report;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return new ArrayList<>();
+            }
+
+            boolean compressed = GzipUserFiles.isGzip(path);
+            long[] bounds = compressed ? splitOnMemberBoundaries(channel, size) : splitOnLineBoundaries(channel, size);
+            int chunkCount = bounds.length - 1;
+
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(threadCount, chunkCount));
+            List<Future<ChunkResult>> futures = new ArrayList<>(chunkCount);
+            try {
+                for (int i = 0; i < chunkCount; i++) {
+                    futures.add(executor.submit(compressed
+                            ? new GzipChunkTask(channel, bounds[i], bounds[i + 1], i, report, validationCache)
+                            : new ChunkTask(channel, bounds[i], bounds[i + 1], i, report, validationCache)));
+                }
+
+                // Склеиваем результаты в порядке следования фрагментов в файле
+                List<ChunkResult> results = new ArrayList<>(chunkCount);
+                long[] lineBases = new long[chunkCount];
+                long lines = 0;
+                int total = 0;
+                for (Future<ChunkResult> future : futures) {
+                    ChunkResult result = getResult(future);
+                    lineBases[results.size()] = lines;
+                    results.add(result);
+                    lines += result.lines;
+                    total += result.users.size();
+                }
+                report.setChunkLineBases(lineBases);
+                report.addLines(lines);
+                report.addValid(total);
+
+                List<User> users = new ArrayList<>(total);
+                for (ChunkResult result : results) {
+                    users.addAll(result.users);
+                }
+                return users;
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    public int getInvalidCount() {
+        return (int) lastReport.getInvalid();
+    }
+
+    public LoadReport getLastReport() {
+        return lastReport;
+    }
+
+    public ValidationCache getValidationCache() {
+        return validationCache;
+    }
+
+    private ChunkResult getResult(Future<ChunkResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Загрузка прервана", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException("Ошибка разбора фрагмента файла: " + cause.getMessage(), cause);
+        }
+    }
+
+    // Границы фрагментов сдвигаются к началу следующей строки, чтобы строка не разрезалась
+    private long[] splitOnLineBoundaries(FileChannel channel, long size) throws IOException {
+        // Фрагментов не больше, чем байт: иначе первые границы попадают в позицию 0
+        int chunkCount = (int) Math.min(size, Math.max(threadCount, (size + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE));
+        List<Long> bounds = new ArrayList<>(chunkCount + 1);
+        bounds.add(0L);
+
+        ByteBuffer scan = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+        for (int i = 1; i < chunkCount; i++) {
+            long target = Math.max(size / chunkCount * i, bounds.get(bounds.size() - 1));
+            if (target == 0) {
+                continue;
+            }
+            long boundary = nextLineStart(channel, target, size, scan);
+            if (boundary > bounds.get(bounds.size() - 1) && boundary < size) {
+                bounds.add(boundary);
+            }
+        }
+        bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    // Сжатый файл делится только по границам gzip-членов; без записанных размеров членов читается одним потоком
+    private long[] splitOnMemberBoundaries(FileChannel channel, long size) throws IOException {
+        long[] members = GzipUserFiles.memberOffsets(channel);
+        if (members == null) {
+            return new long[]{0, size};
+        }
+
+        List<Long> bounds = new ArrayList<>(threadCount + 1);
+        bounds.add(0L);
+        int next = 1;
+        for (int i = 1; i < threadCount; i++) {
+            long target = size / threadCount * i;
+            while (next < members.length - 1 && members[next] < target) {
+                next++;
+            }
+            if (next < members.length - 1 && members[next] > bounds.get(bounds.size() - 1)) {
+                bounds.add(members[next]);
+            }
+        }
+        bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    private long nextLineStart(FileChannel channel, long target, long size, ByteBuffer scan) throws IOException {
+        long position = target - 1;
+        while (position < size) {
+            scan.clear();
+            int read = channel.read(scan, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private abstract static class LineTask implements Callable<ChunkResult> {
+        protected final FileChannel channel;
+        protected final long start;
+        protected final long end;
+        private final int chunk;
+        private final LoadReport report;
+        private final ValidationCache validationCache;
+        private final UserLineParser parser = new UserLineParser();
+        // Разобранные строки копятся и проверяются пакетом; сообщения об ошибках не создаются
+        private final String[] names = new String[VALIDATION_BATCH_SIZE];
+        private final String[] passwords = new String[VALIDATION_BATCH_SIZE];
+        private final String[] mails = new String[VALIDATION_BATCH_SIZE];
+        private final long[] lineNumbers = new long[VALIDATION_BATCH_SIZE];
+        // Байты строк пакета подряд: строка i занимает [lineStarts[i], lineStarts[i + 1]).
+        // Буфер чтения к моменту проверки уже переписан, а отчету нужна исходная строка
+        private byte[] lineBytes = new byte[64 * VALIDATION_BATCH_SIZE];
+        private final int[] lineStarts = new int[VALIDATION_BATCH_SIZE + 1];
+        private int pending;
+
+        protected LineTask(FileChannel channel, long start, long end, int chunk, LoadReport report,
+                           ValidationCache validationCache) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.chunk = chunk;
+            this.report = report;
+            this.validationCache = validationCache;
+        }
+
+        protected void parseLine(byte[] line, int from, int to, ChunkResult result) {
+            long lineNumber = ++result.lines;
+            int status = parser.parse(line, from, to);
+            if (status == UserLineParser.SKIP) {
+                return;
+            }
+            if (status != UserLineParser.OK) {
+                report.recordError(LoadReport.categoryOf(status), chunk, lineNumber, line, from, to);
+                return;
+            }
+            names[pending] = parser.getName();
+            passwords[pending] = parser.getPassword();
+            mails[pending] = parser.getMail();
+            lineNumbers[pending] = lineNumber;
+            int length = to - from;
+            int lineStart = lineStarts[pending];
+            if (lineBytes.length - lineStart < length) {
+                lineBytes = Arrays.copyOf(lineBytes, Math.max(lineBytes.length * 2, lineStart + length));
+            }
+            System.arraycopy(line, from, lineBytes, lineStart, length);
+            lineStarts[pending + 1] = lineStart + length;
+            if (++pending == VALIDATION_BATCH_SIZE) {
+                flush(result);
+            }
+        }
+
+        protected ChunkResult complete(ChunkResult result) {
+            flush(result);
+            return result;
+        }
+
+        private void flush(ChunkResult result) {
+            BatchValidationResult validation = UserValidator.validateBatch(names, passwords, mails, pending, false,
+                    validationCache);
+            for (int i = 0; i < pending; i++) {
+                if (validation.isValid(i)) {
+                    result.users.add(User.fromBatch(validation, i));
+                } else {
+                    report.recordError(LoadReport.categoryOfCode(validation.getErrorCode(i)), chunk, lineNumbers[i],
+                            lineBytes, lineStarts[i], lineStarts[i + 1]);
+                }
+            }
+            Arrays.fill(names, 0, pending, null);
+            Arrays.fill(passwords, 0, pending, null);
+            Arrays.fill(mails, 0, pending, null);
+            pending = 0;
+        }
+    }
+
+    private static final class ChunkTask extends LineTask {
+
+        private ChunkTask(FileChannel channel, long start, long end, int chunk, LoadReport report,
+                          ValidationCache validationCache) {
+            super(channel, start, end, chunk, report, validationCache);
+        }
+
+        @Override
+        public ChunkResult call() throws IOException {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            ChunkResult result = new ChunkResult();
+            byte[] line = new byte[256];
+
+            int limit = buffer.limit();
+            int lineStart = 0;
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+
+                int length = lineEnd - lineStart;
+                if (length > line.length) {
+                    line = new byte[Math.max(length, line.length * 2)];
+                }
+                buffer.get(lineStart, line, 0, length);
+                parseLine(line, 0, length, result);
+
+                lineStart = lineEnd + 1;
+            }
+            return complete(result);
+        }
+    }
+
+    // Распаковывает свой диапазон gzip-членов потоком и делит его на строки в скользящем буфере
+    private static final class GzipChunkTask extends LineTask {
+
+        private GzipChunkTask(FileChannel channel, long start, long end, int chunk, LoadReport report,
+                              ValidationCache validationCache) {
+            super(channel, start, end, chunk, report, validationCache);
+        }
+
+        @Override
+        public ChunkResult call() throws IOException {
+            ChunkResult result = new ChunkResult();
+            byte[] buffer = new byte[INFLATE_BUFFER_SIZE];
+            int lineStart = 0;
+            int filled = 0;
+
+            try (InputStream input = GzipUserFiles.openRange(channel, start, end, INFLATE_BUFFER_SIZE)) {
+                int read;
+                while ((read = input.read(buffer, filled, buffer.length - filled)) != -1) {
+                    int scan = filled;
+                    filled += read;
+                    for (int i = scan; i < filled; i++) {
+                        if (buffer[i] == '\n') {
+                            parseLine(buffer, lineStart, i, result);
+                            lineStart = i + 1;
+                        }
+                    }
+
+                    // Незавершенная строка переносится в начало буфера
+                    int tail = filled - lineStart;
+                    if (lineStart == 0 && tail == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    } else if (lineStart > 0) {
+                        System.arraycopy(buffer, lineStart, buffer, 0, tail);
+                    }
+                    filled = tail;
+                    lineStart = 0;
+                }
+            }
+            if (filled > 0) {
+                parseLine(buffer, 0, filled, result);
+            }
+            return complete(result);
+        }
+    }
+
+    private static final class ChunkResult {
+        private final List<User> users = new ArrayList<>();
+        private long lines;
+    }
+}
@@ -0,0 +1,71 @@
+package Client.service.file;
+
+import java.util.concurrent.TimeUnit;
+
+// Периодический вывод прогресса загрузки, не чаще одного раза за интервал
+public class ProgressReporter {
+
+    public static final long DEFAULT_INTERVAL_MILLIS = 2000;
+
+    private final long totalBytes;
+    private final long intervalNanos;
+    private final long startNanos = System.nanoTime();
+    private final long startBytes;
+    private final long startRecords;
+    private long lastPrintNanos = startNanos;
+
+    public ProgressReporter(long totalBytes, long startBytes, long startRecords) {
+        this(totalBytes, startBytes, startRecords, DEFAULT_INTERVAL_MILLIS);
+    }
+
+    public ProgressReporter(long totalBytes, long startBytes, long startRecords, long intervalMillis) {
+        this.totalBytes = totalBytes;
+        this.startBytes = startBytes;
+        this.startRecords = startRecords;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+    }
+
+    public void update(long bytes, long records) {
+        long now = System.nanoTime();
+        if (now - lastPrintNanos < intervalNanos) {
+            return;
+        }
+        lastPrintNanos = now;
+        System.out.println(format(bytes, records, now));
+    }
+
+    public void finish(long bytes, long records) {
+        double seconds = Math.max(1e-9, (System.nanoTime() - startNanos) / 1e9);
+        System.out.printf("Загрузка завершена за %.1f с: %s, %d зап/с%n", seconds,
+                formatBytes((long) ((bytes - startBytes) / seconds)) + "/с",
+                (long) ((records - startRecords) / seconds));
+    }
+
+    String format(long bytes, long records, long now) {
+        double seconds = Math.max(1e-9, (now - startNanos) / 1e9);
+        double bytesPerSecond = (bytes - startBytes) / seconds;
+        long recordsPerSecond = (long) ((records - startRecords) / seconds);
+
+        StringBuilder line = new StringBuilder("Прогресс: ");
+        if (totalBytes > 0) {
+            line.append(String.format("%.1f%% | ", Math.min(100.0, bytes * 100.0 / totalBytes)));
+        }
+        line.append(formatBytes((long) bytesPerSecond)).append("/с | ")
+                .append(recordsPerSecond).append(" зап/с | записей: ").append(records);
+        if (totalBytes > 0 && bytesPerSecond > 0) {
+            long remaining = (long) (Math.max(0, totalBytes - bytes) / bytesPerSecond);
+            line.append(String.format(" | осталось ~%02d:%02d:%02d", remaining / 3600, remaining / 60 % 60, remaining % 60));
+        }
+        return line.toString();
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes >= 1024 * 1024) {
+            return String.format("%.1f МБ", bytes / (1024.0 * 1024));
+        }
+        if (bytes >= 1024) {
+            return String.format("%.1f КБ", bytes / 1024.0);
+        }
+        return bytes + " Б";
+    }
+}
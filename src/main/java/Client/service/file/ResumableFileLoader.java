@@ -0,0 +1,314 @@
+package Client.service.file;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPInputStream;
+
+// Потоковая загрузка с контрольными точками в <путь>.ckpt: consumer уже получил все записи до смещения
+public class ResumableFileLoader {
+
+    public static final String CHECKPOINT_EXTENSION = ".ckpt";
+    public static final long DEFAULT_CHECKPOINT_RECORDS = 100_000;
+    public static final long DEFAULT_CHECKPOINT_MILLIS = 10_000;
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    public enum Mode {
+        // Без контрольных точек
+        PLAIN,
+        // Загрузка с начала с сохранением контрольных точек
+        CHECKPOINT,
+        // Продолжение с последней контрольной точки, если она есть и префикс не изменился
+        RESUME
+    }
+
+    private final long checkpointRecords;
+    private final long checkpointNanos;
+    private final long progressIntervalMillis;
+    private LoadReport lastReport = new LoadReport();
+    private Checkpoint resumedFrom;
+
+    public ResumableFileLoader() {
+        this(DEFAULT_CHECKPOINT_RECORDS, DEFAULT_CHECKPOINT_MILLIS, ProgressReporter.DEFAULT_INTERVAL_MILLIS);
+    }
+
+    public ResumableFileLoader(long checkpointRecords, long checkpointMillis, long progressIntervalMillis) {
+        this.checkpointRecords = Math.max(1, checkpointRecords);
+        this.checkpointNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, checkpointMillis));
+        this.progressIntervalMillis = progressIntervalMillis;
+    }
+
+    public static Path checkpointPath(String filePath) {
+        return Paths.get(filePath + CHECKPOINT_EXTENSION);
+    }
+
+    // Возвращает число записей, переданных consumer в этом запуске
+    public <T> long load(String filePath, Function<UserLineParser, T> factory, Consumer<T> consumer, Mode mode)
+            throws IOException {
+        Path path = Paths.get(filePath);
+        LoadReport report = new LoadReport();
+        lastReport = report;
+        resumedFrom = null;
+
+        Checkpoint checkpoint = mode == Mode.RESUME ? readCheckpoint(filePath) : null;
+        CountingInputStream raw = new CountingInputStream(Files.newInputStream(path));
+        InputStream input = GzipUserFiles.isGzip(path) ? new GZIPInputStream(raw, READ_BUFFER_SIZE) : raw;
+        try {
+            if (checkpoint != null) {
+                if (verifyPrefix(input, checkpoint)) {
+                    resumedFrom = checkpoint;
+                    System.out.println("Продолжение с контрольной точки: записей " + checkpoint.getRecords()
+                            + ", смещение " + checkpoint.getOffset());
+                } else {
+                    System.out.println("Файл изменился после контрольной точки, загрузка начинается заново");
+                    input.close();
+                    raw = new CountingInputStream(Files.newInputStream(path));
+                    input = GzipUserFiles.isGzip(path) ? new GZIPInputStream(raw, READ_BUFFER_SIZE) : raw;
+                    checkpoint = null;
+                }
+            }
+            return readLines(filePath, input, raw, checkpoint, factory, consumer, mode != Mode.PLAIN, report);
+        } finally {
+            input.close();
+        }
+    }
+
+    public Checkpoint readCheckpoint(String filePath) throws IOException {
+        Path checkpointPath = checkpointPath(filePath);
+        if (!Files.exists(checkpointPath)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(checkpointPath)) {
+            properties.load(input);
+            return new Checkpoint(
+                    Long.parseLong(properties.getProperty("offset")),
+                    Long.parseLong(properties.getProperty("records")),
+                    Long.parseLong(properties.getProperty("lines")),
+                    Long.parseLong(properties.getProperty("crc32c")));
+        } catch (RuntimeException e) {
+            System.out.println("Поврежден файл контрольной точки " + checkpointPath + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public LoadReport getLastReport() {
+        return lastReport;
+    }
+
+    // Контрольная точка, с которой продолжен последний запуск, или null
+    public Checkpoint getResumedFrom() {
+        return resumedFrom;
+    }
+
+    private <T> long readLines(String filePath, InputStream input, CountingInputStream raw, Checkpoint start,
+                               Function<UserLineParser, T> factory, Consumer<T> consumer, boolean checkpoints,
+                               LoadReport report) throws IOException {
+        UserLineParser parser = new UserLineParser();
+        CRC32C crc = new CRC32C();
+        long offset = 0;
+        long records = 0;
+        long lineNumber = 0;
+        if (start != null) {
+            crc = start.crc;
+            offset = start.getOffset();
+            records = start.getRecords();
+            lineNumber = start.getLines();
+        }
+        long startRecords = records;
+        long startLines = lineNumber;
+        long lastCheckpointRecords = records;
+        long lastCheckpointNanos = System.nanoTime();
+        ProgressReporter progress = new ProgressReporter(Files.size(Paths.get(filePath)), raw.getCount(), records,
+                progressIntervalMillis);
+
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        int filled = 0;
+        int read;
+        while ((read = input.read(buffer, filled, buffer.length - filled)) != -1) {
+            int end = filled + read;
+            int lineStart = 0;
+            for (int i = filled; i < end; i++) {
+                if (buffer[i] != '\n') continue;
+                lineNumber++;
+                if (acceptLine(parser, buffer, lineStart, i, lineNumber, factory, consumer, report)) {
+                    records++;
+                }
+                lineStart = i + 1;
+            }
+
+            // Префикс до конца последней целой строки передан consumer
+            crc.update(buffer, 0, lineStart);
+            offset += lineStart;
+            filled = end - lineStart;
+            System.arraycopy(buffer, lineStart, buffer, 0, filled);
+            if (filled == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+
+            if (checkpoints && (records - lastCheckpointRecords >= checkpointRecords
+                    || System.nanoTime() - lastCheckpointNanos >= checkpointNanos)) {
+                try {
+                    writeCheckpoint(filePath, new Checkpoint(offset, records, lineNumber, crc.getValue()));
+                } catch (IOException e) {
+                    // Например, каталог только для чтения: загрузка продолжается без контрольных точек
+                    System.out.println("Не удалось сохранить контрольную точку, продолжение без нее: " + e.getMessage());
+                    checkpoints = false;
+                }
+                lastCheckpointRecords = records;
+                lastCheckpointNanos = System.nanoTime();
+            }
+            progress.update(raw.getCount(), records);
+        }
+        if (filled > 0) {
+            lineNumber++;
+            if (acceptLine(parser, buffer, 0, filled, lineNumber, factory, consumer, report)) {
+                records++;
+            }
+        }
+
+        report.addLines(lineNumber - startLines);
+        report.addValid(records - startRecords);
+        progress.finish(raw.getCount(), records);
+        if (checkpoints) {
+            Files.deleteIfExists(checkpointPath(filePath));
+        }
+        return records - startRecords;
+    }
+
+    private <T> boolean acceptLine(UserLineParser parser, byte[] buffer, int from, int to, long lineNumber,
+                                   Function<UserLineParser, T> factory, Consumer<T> consumer, LoadReport report) {
+        int status = parser.parse(buffer, from, to);
+        if (status == UserLineParser.SKIP) {
+            return false;
+        }
+        // Фабрика сама проверяет поля; validate() нужен только, чтобы определить категорию отказа
+        T user = status == UserLineParser.OK ? create(factory, parser) : null;
+        if (user == null) {
+            if (status == UserLineParser.OK) {
+                status = parser.validate();
+            }
+            report.recordError(status == UserLineParser.OK
+                    ? LoadReport.Category.CREATE
+                    : LoadReport.categoryOf(status), 0, lineNumber, buffer, from, to);
+            return false;
+        }
+        consumer.accept(user);
+        return true;
+    }
+
+    private static <T> T create(Function<UserLineParser, T> factory, UserLineParser parser) {
+        try {
+            return factory.apply(parser);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Читает offset байт без разбора и сравнивает их контрольную сумму с сохраненной
+    private boolean verifyPrefix(InputStream input, Checkpoint checkpoint) throws IOException {
+        CRC32C crc = new CRC32C();
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        long remaining = checkpoint.getOffset();
+        while (remaining > 0) {
+            int read = input.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                return false;
+            }
+            crc.update(buffer, 0, read);
+            remaining -= read;
+        }
+        if (crc.getValue() != checkpoint.getChecksum()) {
+            return false;
+        }
+        checkpoint.crc = crc;
+        return true;
+    }
+
+    private void writeCheckpoint(String filePath, Checkpoint checkpoint) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("offset", Long.toString(checkpoint.getOffset()));
+        properties.setProperty("records", Long.toString(checkpoint.getRecords()));
+        properties.setProperty("lines", Long.toString(checkpoint.getLines()));
+        properties.setProperty("crc32c", Long.toString(checkpoint.getChecksum()));
+
+        Path target = checkpointPath(filePath);
+        Path temp = Paths.get(target + ".tmp");
+        try (OutputStream output = Files.newOutputStream(temp)) {
+            properties.store(output, "Контрольная точка загрузки " + filePath);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static final class Checkpoint {
+        private final long offset;
+        private final long records;
+        private final long lines;
+        private final long checksum;
+        // Состояние CRC после проверки префикса, чтобы продолжить сумму без повторного чтения
+        private CRC32C crc;
+
+        private Checkpoint(long offset, long records, long lines, long checksum) {
+            this.offset = offset;
+            this.records = records;
+            this.lines = lines;
+            this.checksum = checksum;
+        }
+
+        // Смещение в несжатых данных после последней строки, переданной consumer
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getRecords() {
+            return records;
+        }
+
+        public long getLines() {
+            return lines;
+        }
+
+        public long getChecksum() {
+            return checksum;
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) count++;
+            return value;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = in.read(b, off, len);
+            if (read > 0) count += read;
+            return read;
+        }
+
+        private long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package Client.service.file;
+
+import Client.model.User;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.*;
+
+// Экспорт в шарды путь.part-NNNN и манифест путь.manifest, который пишется последним
+public class ShardedUserFiles {
+
+    public static final String MANIFEST_EXTENSION = ".manifest";
+    private static final int MANIFEST_VERSION = 1;
+
+    public enum Partitioning {
+        CONTIGUOUS,
+        HASH
+    }
+
+    private final int threadCount;
+
+    public ShardedUserFiles() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ShardedUserFiles(int threadCount) {
+        this.threadCount = Math.max(1, threadCount);
+    }
+
+    public static String shardPath(String basePath, int shard) {
+        String suffix = String.format(".part-%04d", shard);
+        if (basePath.endsWith(GzipUserFiles.EXTENSION)) {
+            return basePath.substring(0, basePath.length() - GzipUserFiles.EXTENSION.length())
+                    + suffix + GzipUserFiles.EXTENSION;
+        }
+        return basePath + suffix;
+    }
+
+    public static Path manifestPath(String basePath) {
+        return Paths.get(basePath + MANIFEST_EXTENSION);
+    }
+
+    public Manifest write(List<User> users, String basePath, int shardCount, Partitioning partitioning,
+                          boolean force) throws IOException {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Число шардов должно быть положительным: " + shardCount);
+        }
+        List<List<User>> shards = partition(users, shardCount, partitioning);
+        long[] bytes = new long[shardCount];
+
+        // Старый манифест удаляется до записи, чтобы незавершенный экспорт нельзя было прочитать
+        Files.deleteIfExists(manifestPath(basePath));
+
+        List<Callable<Void>> tasks = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            int shard = i;
+            tasks.add(() -> {
+                Path path = Paths.get(shardPath(basePath, shard));
+                try (UserFileWriter writer = UserFileWriter.open(path, false)) {
+                    for (User user : shards.get(shard)) {
+                        writer.writeUser(user);
+                    }
+                    if (force) {
+                        writer.force();
+                    }
+                }
+                bytes[shard] = Files.size(path);
+                return null;
+            });
+        }
+        runAll(tasks, Math.min(threadCount, shardCount));
+
+        long[] records = new long[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            records[i] = shards.get(i).size();
+        }
+        Manifest manifest = new Manifest(partitioning, records, bytes);
+        writeManifest(basePath, manifest);
+        deleteShardsFrom(basePath, shardCount);
+        return manifest;
+    }
+
+    // Шарды прежнего экспорта с большим числом частей; их номера идут подряд, поэтому удаляем до первого пропуска
+    private void deleteShardsFrom(String basePath, int firstStale) throws IOException {
+        int shard = firstStale;
+        while (Files.deleteIfExists(Paths.get(shardPath(basePath, shard)))) {
+            shard++;
+        }
+    }
+
+    public List<User> read(String basePath) throws IOException {
+        Manifest manifest = readManifest(basePath);
+        int shardCount = manifest.getShardCount();
+
+        List<Callable<List<User>>> tasks = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            int shard = i;
+            tasks.add(() -> {
+                String path = shardPath(basePath, shard);
+                // Параллелизм уже на уровне шардов, внутри шарда достаточно одного потока
+                List<User> users = new MappedFileLoader(1).load(path);
+                if (users.size() != manifest.getRecords(shard)) {
+                    throw new IOException("Шард " + path + " содержит " + users.size()
+                            + " записей, в манифесте " + manifest.getRecords(shard));
+                }
+                return users;
+            });
+        }
+        List<List<User>> shards = runAll(tasks, Math.min(threadCount, shardCount));
+
+        List<User> users = new ArrayList<>((int) Math.min(Integer.MAX_VALUE, manifest.getTotalRecords()));
+        for (List<User> shard : shards) {
+            users.addAll(shard);
+        }
+        return users;
+    }
+
+    public Manifest readManifest(String basePath) throws IOException {
+        Path path = manifestPath(basePath);
+        if (!Files.exists(path)) {
+            throw new NoSuchFileException(path.toString(), null, "Манифест не найден: экспорт не завершен или путь неверный");
+        }
+        Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(path)) {
+            properties.load(input);
+        }
+        try {
+            int version = Integer.parseInt(properties.getProperty("version"));
+            if (version != MANIFEST_VERSION) {
+                throw new IOException("Неподдерживаемая версия манифеста: " + version);
+            }
+            int shardCount = Integer.parseInt(properties.getProperty("shards"));
+            long[] records = new long[shardCount];
+            long[] bytes = new long[shardCount];
+            for (int i = 0; i < shardCount; i++) {
+                records[i] = Long.parseLong(properties.getProperty("part." + i + ".records"));
+                bytes[i] = Long.parseLong(properties.getProperty("part." + i + ".bytes"));
+            }
+            return new Manifest(Partitioning.valueOf(properties.getProperty("partitioning")), records, bytes);
+        } catch (RuntimeException e) {
+            throw new IOException("Поврежден манифест " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    private List<List<User>> partition(List<User> users, int shardCount, Partitioning partitioning) {
+        List<List<User>> shards = new ArrayList<>(shardCount);
+        if (partitioning == Partitioning.CONTIGUOUS) {
+            // Подсписки без копирования; размеры шардов отличаются не больше чем на единицу
+            int size = users.size();
+            for (int i = 0; i < shardCount; i++) {
+                shards.add(users.subList((int) ((long) size * i / shardCount), (int) ((long) size * (i + 1) / shardCount)));
+            }
+            return shards;
+        }
+
+        int expected = users.size() / shardCount + 1;
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new ArrayList<>(expected));
+        }
+        for (User user : users) {
+            shards.get(Math.floorMod(user.getMail().hashCode(), shardCount)).add(user);
+        }
+        return shards;
+    }
+
+    private void writeManifest(String basePath, Manifest manifest) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("version", Integer.toString(MANIFEST_VERSION));
+        properties.setProperty("shards", Integer.toString(manifest.getShardCount()));
+        properties.setProperty("partitioning", manifest.getPartitioning().name());
+        properties.setProperty("records", Long.toString(manifest.getTotalRecords()));
+        for (int i = 0; i < manifest.getShardCount(); i++) {
+            properties.setProperty("part." + i + ".file", Paths.get(shardPath(basePath, i)).getFileName().toString());
+            properties.setProperty("part." + i + ".records", Long.toString(manifest.getRecords(i)));
+            properties.setProperty("part." + i + ".bytes", Long.toString(manifest.getBytes(i)));
+        }
+
+        Path target = manifestPath(basePath);
+        Path temp = Paths.get(target + ".tmp");
+        try (OutputStream output = Files.newOutputStream(temp)) {
+            properties.store(output, "Шардированный экспорт пользователей");
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private <T> List<T> runAll(List<Callable<T>> tasks, int threads) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<T>> futures = executor.invokeAll(tasks);
+            List<T> results = new ArrayList<>(futures.size());
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Операция с шардами прервана", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException("Ошибка обработки шарда: " + cause.getMessage(), cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public static final class Manifest {
+        private final Partitioning partitioning;
+        private final long[] records;
+        private final long[] bytes;
+
+        private Manifest(Partitioning partitioning, long[] records, long[] bytes) {
+            this.partitioning = partitioning;
+            this.records = records;
+            this.bytes = bytes;
+        }
+
+        public Partitioning getPartitioning() {
+            return partitioning;
+        }
+
+        public int getShardCount() {
+            return records.length;
+        }
+
+        public long getRecords(int shard) {
+            return records[shard];
+        }
+
+        public long getBytes(int shard) {
+            return bytes[shard];
+        }
+
+        public long getTotalRecords() {
+            long total = 0;
+            for (long count : records) {
+                total += count;
+            }
+            return total;
+        }
+
+        public long getTotalBytes() {
+            long total = 0;
+            for (long size : bytes) {
+                total += size;
+            }
+            return total;
+        }
+    }
+}
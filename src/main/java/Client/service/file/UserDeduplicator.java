@@ -0,0 +1,444 @@
+package Client.service.file;
+
+import Client.model.User;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+// Потоковое удаление повторов по 64-битным отпечаткам; при превышении лимита разделы выгружаются на диск
+public class UserDeduplicator implements Consumer<User>, Closeable {
+
+    public static final long DEFAULT_MAX_ENTRIES = 4_000_000;
+
+    private static final int PARTITIONS = 16;
+    private static final int PARTITION_SHIFT = 60;
+    private static final int SPILL_BUFFER_SIZE = 64 * 1024;
+
+    private final Consumer<User> downstream;
+    private final long maxEntries;
+    private final Path spillDirectory;
+    private final Partition[] partitions = new Partition[PARTITIONS];
+    private long entries;
+    private long records;
+    private long distinct;
+    private Path spillRoot;
+    private Result result;
+
+    public UserDeduplicator(Consumer<User> downstream) {
+        this(downstream, DEFAULT_MAX_ENTRIES, Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    public UserDeduplicator(Consumer<User> downstream, long maxEntries, Path spillDirectory) {
+        this.downstream = downstream;
+        this.maxEntries = Math.max(PARTITIONS, maxEntries);
+        this.spillDirectory = spillDirectory;
+        for (int i = 0; i < PARTITIONS; i++) {
+            partitions[i] = new Partition(i);
+        }
+    }
+
+    @Override
+    public void accept(User user) {
+        if (result != null) {
+            throw new IllegalStateException("Удаление дубликатов уже завершено");
+        }
+        records++;
+        long fingerprint = fingerprint(user);
+        Partition partition = partitions[(int) (fingerprint >>> PARTITION_SHIFT)];
+        try {
+            if (partition.spill != null) {
+                partition.defer(fingerprint, user);
+                return;
+            }
+            int count = partition.counts.increment(fingerprint);
+            if (count == 1) {
+                entries++;
+                distinct++;
+                downstream.accept(user);
+                if (entries >= maxEntries) {
+                    spillLargest();
+                }
+            } else if (count == 2) {
+                // Повторяющийся пользователь хранится целиком и учитывается в лимите наравне с отпечатком
+                partition.addDuplicate(fingerprint, user);
+                entries++;
+                if (entries >= maxEntries) {
+                    spillLargest();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка записи временного файла: " + e.getMessage(), e);
+        }
+    }
+
+    // Передает дальше первые вхождения из выгруженных разделов и удаляет временные файлы
+    public Result finish() throws IOException {
+        return finish((user, count) -> {
+        });
+    }
+
+    // duplicates получает каждого повторяющегося пользователя и число его вхождений;
+    // разделы обрабатываются по одному, поэтому все повторы одновременно в памяти не держатся
+    public Result finish(ObjIntConsumer<User> duplicates) throws IOException {
+        if (result != null) {
+            return result;
+        }
+        PriorityQueue<Map.Entry<User, Integer>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        long duplicateUsers = 0;
+        int spilled = 0;
+        try {
+            for (Partition partition : partitions) {
+                if (partition.spill != null) {
+                    spilled++;
+                    partition.reload();
+                    partition.replayDeferred();
+                }
+                for (int i = 0; i < partition.duplicateCount; i++) {
+                    User user = partition.duplicateUsers.get(i);
+                    int count = partition.counts.get(partition.duplicateFingerprints[i]);
+                    duplicates.accept(user, count);
+                    duplicateUsers++;
+                    top.add(Map.entry(user, count));
+                    if (top.size() > Result.TOP_SIZE) {
+                        top.poll();
+                    }
+                }
+                partition.release();
+            }
+        } finally {
+            close();
+        }
+        List<Map.Entry<User, Integer>> topList = new ArrayList<>(top);
+        topList.sort(Map.Entry.<User, Integer>comparingByValue().reversed());
+        result = new Result(records, distinct, duplicateUsers, topList, spilled);
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Partition partition : partitions) {
+            partition.closeSpill();
+        }
+        if (spillRoot != null) {
+            try (var files = Files.list(spillRoot)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(spillRoot);
+            spillRoot = null;
+        }
+    }
+
+    // Отпечаток не зависит от порядка загрузки; поля разделены, чтобы "ab"+"c" и "a"+"bc" различались
+    static long fingerprint(User user) {
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, user.getName());
+        hash = mix(hash, user.getPassword());
+        hash = mix(hash, user.getMail());
+        // Финальное перемешивание из MurmurHash3, чтобы старшие биты зависели от всех символов
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long mix(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return (hash ^ 0xFFFF) * 0x100000001b3L;
+    }
+
+    private void spillLargest() throws IOException {
+        Partition largest = null;
+        for (Partition partition : partitions) {
+            if (partition.spill == null && (largest == null || partition.size() > largest.size())) {
+                largest = partition;
+            }
+        }
+        if (largest == null || largest.size() == 0) {
+            return;
+        }
+        if (spillRoot == null) {
+            Files.createDirectories(spillDirectory);
+            spillRoot = Files.createTempDirectory(spillDirectory, "dedup-");
+        }
+        entries -= largest.size();
+        largest.spillState();
+    }
+
+    private final class Partition {
+        private final int index;
+        private LongIntMap counts = new LongIntMap();
+        // Повторяющиеся пользователи в порядке второго вхождения
+        private long[] duplicateFingerprints = new long[16];
+        private List<User> duplicateUsers = new ArrayList<>();
+        private int duplicateCount;
+        private DataOutputStream spill;
+
+        private Partition(int index) {
+            this.index = index;
+        }
+
+        private long size() {
+            return counts.size() + duplicateCount;
+        }
+
+        private void addDuplicate(long fingerprint, User user) {
+            if (duplicateCount == duplicateFingerprints.length) {
+                duplicateFingerprints = Arrays.copyOf(duplicateFingerprints, duplicateCount * 2);
+            }
+            duplicateFingerprints[duplicateCount++] = fingerprint;
+            duplicateUsers.add(user);
+        }
+
+        private Path stateFile() {
+            return spillRoot.resolve("part-" + index + ".state");
+        }
+
+        private Path deferredFile() {
+            return spillRoot.resolve("part-" + index + ".deferred");
+        }
+
+        // Сохраняет счетчики раздела на диск и освобождает память
+        private void spillState() throws IOException {
+            try (DataOutputStream output = open(stateFile())) {
+                output.writeInt(counts.size());
+                counts.forEach((fingerprint, count) -> {
+                    output.writeLong(fingerprint);
+                    output.writeInt(count);
+                });
+                output.writeInt(duplicateCount);
+                for (int i = 0; i < duplicateCount; i++) {
+                    output.writeLong(duplicateFingerprints[i]);
+                    writeUser(output, duplicateUsers.get(i));
+                }
+            }
+            release();
+            spill = open(deferredFile());
+        }
+
+        private void defer(long fingerprint, User user) throws IOException {
+            spill.writeLong(fingerprint);
+            writeUser(spill, user);
+        }
+
+        private void reload() throws IOException {
+            closeSpill();
+            try (DataInputStream input = openInput(stateFile())) {
+                int size = input.readInt();
+                for (int i = 0; i < size; i++) {
+                    long fingerprint = input.readLong();
+                    counts.put(fingerprint, input.readInt());
+                }
+                int duplicates = input.readInt();
+                for (int i = 0; i < duplicates; i++) {
+                    long fingerprint = input.readLong();
+                    addDuplicate(fingerprint, readUser(input));
+                }
+            }
+        }
+
+        private void replayDeferred() throws IOException {
+            try (DataInputStream input = openInput(deferredFile())) {
+                while (true) {
+                    long fingerprint;
+                    try {
+                        fingerprint = input.readLong();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    User user = readUser(input);
+                    int count = counts.increment(fingerprint);
+                    if (count == 1) {
+                        distinct++;
+                        downstream.accept(user);
+                    } else if (count == 2) {
+                        addDuplicate(fingerprint, user);
+                    }
+                }
+            }
+        }
+
+        private void release() {
+            counts = new LongIntMap();
+            duplicateFingerprints = new long[16];
+            duplicateUsers = new ArrayList<>();
+            duplicateCount = 0;
+        }
+
+        private void closeSpill() throws IOException {
+            if (spill != null) {
+                spill.close();
+                spill = null;
+            }
+        }
+    }
+
+    private static DataOutputStream open(Path path) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), SPILL_BUFFER_SIZE));
+    }
+
+    private static DataInputStream openInput(Path path) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(path), SPILL_BUFFER_SIZE));
+    }
+
+    private static void writeUser(DataOutputStream output, User user) throws IOException {
+        output.writeUTF(user.getName());
+        output.writeUTF(user.getPassword());
+        output.writeUTF(user.getMail());
+    }
+
+    private static User readUser(DataInputStream input) throws IOException {
+        return User.builder()
+                .name(input.readUTF())
+                .password(input.readUTF())
+                .mail(input.readUTF())
+                .build();
+    }
+
+    // Открытая адресация с линейным пробированием на примитивных массивах; ключ 0 в отдельном слоте
+    static final class LongIntMap {
+        private long[] keys = new long[1024];
+        private int[] values = new int[1024];
+        private int size;
+        private int zeroValue;
+
+        int size() {
+            return size;
+        }
+
+        int get(long key) {
+            if (key == 0) return zeroValue;
+            int slot = find(key);
+            return keys[slot] == key ? values[slot] : 0;
+        }
+
+        void put(long key, int value) {
+            if (key == 0) {
+                if (zeroValue == 0) size++;
+                zeroValue = value;
+                return;
+            }
+            int slot = find(key);
+            if (keys[slot] != key) {
+                keys[slot] = key;
+                size++;
+                if (size * 2 > keys.length) {
+                    values[slot] = value;
+                    grow();
+                    return;
+                }
+            }
+            values[slot] = value;
+        }
+
+        // Возвращает новое значение счетчика
+        int increment(long key) {
+            int value = get(key) + 1;
+            put(key, value);
+            return value;
+        }
+
+        void forEach(Visitor visitor) throws IOException {
+            if (zeroValue != 0) {
+                visitor.visit(0, zeroValue);
+            }
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    visitor.visit(keys[i], values[i]);
+                }
+            }
+        }
+
+        private int find(long key) {
+            int mask = keys.length - 1;
+            int slot = (int) key & mask;
+            while (keys[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = find(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        interface Visitor {
+            void visit(long key, int value) throws IOException;
+        }
+    }
+
+    public static final class Result {
+        static final int TOP_SIZE = 5;
+
+        private final long records;
+        private final long distinct;
+        private final long duplicateUsers;
+        private final List<Map.Entry<User, Integer>> topDuplicates;
+        private final int spilledPartitions;
+
+        private Result(long records, long distinct, long duplicateUsers, List<Map.Entry<User, Integer>> topDuplicates,
+                       int spilledPartitions) {
+            this.records = records;
+            this.distinct = distinct;
+            this.duplicateUsers = duplicateUsers;
+            this.topDuplicates = Collections.unmodifiableList(topDuplicates);
+            this.spilledPartitions = spilledPartitions;
+        }
+
+        public long getRecords() {
+            return records;
+        }
+
+        public long getDistinct() {
+            return distinct;
+        }
+
+        public long getDuplicateRecords() {
+            return records - distinct;
+        }
+
+        // Число пользователей, встретившихся больше одного раза
+        public long getDuplicateUsers() {
+            return duplicateUsers;
+        }
+
+        // Не больше TOP_SIZE самых частых повторов, по убыванию числа вхождений
+        public List<Map.Entry<User, Integer>> getTopDuplicates() {
+            return topDuplicates;
+        }
+
+        public int getSpilledPartitions() {
+            return spilledPartitions;
+        }
+
+        public void print() {
+            System.out.println("Удаление дубликатов: записей " + records + ", уникальных " + distinct
+                    + ", повторов " + getDuplicateRecords()
+                    + (spilledPartitions > 0 ? ", разделов на диске: " + spilledPartitions : ""));
+            for (Map.Entry<User, Integer> entry : topDuplicates) {
+                System.out.println("  " + entry.getValue() + " x " + entry.getKey().getName()
+                        + " <" + entry.getKey().getMail() + ">");
+            }
+        }
+    }
+}
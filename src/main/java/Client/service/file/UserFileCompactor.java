@@ -0,0 +1,246 @@
+package Client.service.file;
+
+import Client.model.User;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+// Переписывает файл с дописываниями в снимок последнего состояния; первая строка — маркер контрольной точки
+public class UserFileCompactor {
+
+    public static final String CHECKPOINT_PREFIX = "# checkpoint ";
+
+    // Фиксированная ширина чисел позволяет переписать маркер на месте после записи снимка
+    private static final String CHECKPOINT_FORMAT = CHECKPOINT_PREFIX + "records=%010d bytes=%019d";
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final FileReaderService fileReader = new FileReaderService();
+
+    public Result compact(String filePath) throws IOException {
+        return compact(filePath, Key.USER);
+    }
+
+    public Result compact(String filePath, Key key) throws IOException {
+        Path path = Paths.get(filePath);
+        boolean gzip = GzipUserFiles.isGzip(path);
+
+        // Канал держится открытым до замены: строки, дописанные во время компактации, переносятся из него в снимок
+        try (FileChannel source = FileChannel.open(path, StandardOpenOption.READ)) {
+            long bytesBefore = source.size();
+            // Читается только целая часть файла: недописанная последняя строка уйдет в хвост как есть
+            long readEnd = gzip ? bytesBefore : lineEnd(source, bytesBefore);
+
+            // Более поздняя запись с тем же ключом заменяет раннюю, позиция остается по первому появлению
+            Map<Object, User> latest = new LinkedHashMap<>();
+            long recordsBefore = 0;
+            UserLineParser parser = new UserLineParser();
+            try (BufferedReader reader = openReader(source, readEnd, gzip)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (parser.parse(line) != UserLineParser.OK) {
+                        continue;
+                    }
+                    User user = parser.toResult().getUser();
+                    if (user == null) {
+                        continue;
+                    }
+                    latest.put(key == Key.MAIL ? user.getMail() : user, user);
+                    recordsBefore++;
+                }
+            }
+
+            // Временный файл в том же каталоге (для атомарного переименования), с тем же расширением и правами
+            Path temp = FileWriterService.createTempSibling(path, "compact-");
+            try {
+                byte[] placeholder = encodeCheckpoint(path, 0, 0);
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    writeAt(channel, placeholder, 0);
+                }
+                try (UserFileWriter writer = UserFileWriter.open(temp, true)) {
+                    for (User user : latest.values()) {
+                        writer.writeUser(user);
+                    }
+                }
+
+                long snapshotBytes = Files.size(temp);
+                byte[] checkpoint = encodeCheckpoint(path, latest.size(), snapshotBytes);
+                long tailBytes;
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    writeAt(channel, checkpoint, 0);
+                    tailBytes = copyTail(source, readEnd, channel, snapshotBytes);
+                    channel.force(true);
+                }
+
+                moveAtomically(temp, path);
+                return new Result(recordsBefore, latest.size(), bytesBefore, snapshotBytes + tailBytes);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    // По чему записи считаются одной: USER — только полностью совпадающие, MAIL — последняя запись для email
+    // (разные пользователи с одним email при этом схлопываются в одного)
+    public enum Key {
+        USER,
+        MAIL
+    }
+
+    private BufferedReader openReader(FileChannel source, long end, boolean gzip) throws IOException {
+        InputStream input = gzip
+                ? GzipUserFiles.openRange(source, 0, end, READ_BUFFER_SIZE)
+                : GzipUserFiles.openRawRange(source, 0, end, READ_BUFFER_SIZE);
+        return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+    }
+
+    // Позиция после последнего перевода строки в [0, size)
+    private long lineEnd(FileChannel channel, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long end = size;
+        while (end > 0) {
+            long start = Math.max(0, end - buffer.capacity());
+            buffer.clear().limit((int) (end - start));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) break;
+            }
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+
+    // Дописанное в исходный файл после readEnd копируется в конец снимка, пока размер не перестанет расти
+    private long copyTail(FileChannel source, long readEnd, FileChannel target, long targetEnd) throws IOException {
+        long position = readEnd;
+        long size;
+        while ((size = source.size()) > position) {
+            position += source.transferTo(position, size - position, target.position(targetEnd + position - readEnd));
+        }
+        return position - readEnd;
+    }
+
+    // Маркер контрольной точки из первой строки файла или null, если файл не компактировался
+    public Checkpoint readCheckpoint(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (BufferedReader reader = fileReader.openReader(filePath)) {
+            return parseCheckpoint(reader.readLine());
+        }
+    }
+
+    public static Checkpoint parseCheckpoint(String line) {
+        if (line == null || !line.startsWith(CHECKPOINT_PREFIX)) {
+            return null;
+        }
+        try {
+            String[] parts = line.substring(CHECKPOINT_PREFIX.length()).split(" ");
+            long records = Long.parseLong(parts[0].substring("records=".length()));
+            long bytes = Long.parseLong(parts[1].substring("bytes=".length()));
+            return new Checkpoint(records, bytes);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private byte[] encodeCheckpoint(Path path, long records, long bytes) {
+        byte[] line = UserFileWriter.encodeLine(String.format(CHECKPOINT_FORMAT, records, bytes));
+        if (!GzipUserFiles.isGzip(path)) {
+            return line;
+        }
+        // Маркер сжатого файла — отдельный gzip-член без сжатия, его длина не зависит от чисел
+        GzipUserFiles.MemberEncoder encoder = new GzipUserFiles.MemberEncoder(Deflater.NO_COMPRESSION);
+        try {
+            int size = encoder.encode(line, 0, line.length);
+            byte[] member = new byte[size];
+            System.arraycopy(encoder.getOutput(), 0, member, 0, size);
+            return member;
+        } finally {
+            encoder.end();
+        }
+    }
+
+    private void writeAt(FileChannel channel, byte[] bytes, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static final class Checkpoint {
+        private final long records;
+        private final long snapshotBytes;
+
+        private Checkpoint(long records, long snapshotBytes) {
+            this.records = records;
+            this.snapshotBytes = snapshotBytes;
+        }
+
+        public long getRecords() {
+            return records;
+        }
+
+        // Размер снимка на диске: байты после этой позиции — дописанный хвост
+        public long getSnapshotBytes() {
+            return snapshotBytes;
+        }
+    }
+
+    public static final class Result {
+        private final long recordsBefore;
+        private final long recordsAfter;
+        private final long bytesBefore;
+        private final long bytesAfter;
+
+        private Result(long recordsBefore, long recordsAfter, long bytesBefore, long bytesAfter) {
+            this.recordsBefore = recordsBefore;
+            this.recordsAfter = recordsAfter;
+            this.bytesBefore = bytesBefore;
+            this.bytesAfter = bytesAfter;
+        }
+
+        public long getRecordsBefore() {
+            return recordsBefore;
+        }
+
+        public long getRecordsAfter() {
+            return recordsAfter;
+        }
+
+        public long getBytesBefore() {
+            return bytesBefore;
+        }
+
+        public long getBytesAfter() {
+            return bytesAfter;
+        }
+
+        @Override
+        public String toString() {
+            return "записей " + recordsBefore + " -> " + recordsAfter + ", байт " + bytesBefore + " -> " + bytesAfter;
+        }
+    }
+}
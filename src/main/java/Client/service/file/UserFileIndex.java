@@ -0,0 +1,215 @@
+package Client.service.file;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Arrays;
+
+// Индекс смещений валидных записей текстового файла в <путь>.idx; сжатые файлы не поддерживаются
+public final class UserFileIndex {
+
+    public static final String INDEX_EXTENSION = ".idx";
+    public static final int MAGIC = 0x50554958;
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 32;
+
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+    private final long fileSize;
+    private final long modified;
+    private final long count;
+    // Отображенный файл индекса либо массив, только что построенный сканированием
+    private final LongBuffer offsets;
+
+    private UserFileIndex(long fileSize, long modified, long count, LongBuffer offsets) {
+        this.fileSize = fileSize;
+        this.modified = modified;
+        this.count = count;
+        this.offsets = offsets;
+    }
+
+    public static Path indexPath(String filePath) {
+        return Paths.get(filePath + INDEX_EXTENSION);
+    }
+
+    // Открывает актуальный индекс или строит и сохраняет новый
+    public static UserFileIndex openOrBuild(String filePath) throws IOException {
+        UserFileIndex index = open(filePath);
+        return index != null ? index : build(filePath);
+    }
+
+    // Возвращает null, если индекса нет или он не соответствует файлу
+    public static UserFileIndex open(String filePath) throws IOException {
+        Path path = checkPlain(filePath);
+        Path indexPath = indexPath(filePath);
+        if (!Files.exists(indexPath)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (mapped.getInt() != MAGIC || mapped.getShort() != VERSION) {
+                return null;
+            }
+            mapped.getShort();
+            long fileSize = mapped.getLong();
+            long modified = mapped.getLong();
+            long count = mapped.getLong();
+            if (count < 0 || size != HEADER_SIZE + (count + 1) * Long.BYTES
+                    || fileSize != Files.size(path) || modified != Files.getLastModifiedTime(path).toMillis()) {
+                return null;
+            }
+            // Отображение остается действительным после закрытия канала
+            mapped.position(HEADER_SIZE);
+            return new UserFileIndex(fileSize, modified, count, mapped.slice().asLongBuffer());
+        }
+    }
+
+    // Один проход по файлу; индекс записывается во временный файл и атомарно переименовывается.
+    // Если сохранить индекс не удалось (например, каталог только для чтения), возвращается индекс в памяти
+    public static UserFileIndex build(String filePath) throws IOException {
+        Path path = checkPlain(filePath);
+        long modified = Files.getLastModifiedTime(path).toMillis();
+
+        long[] offsets = new long[1024];
+        int count = 0;
+        UserLineParser parser = new UserLineParser();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            byte[] buffer = new byte[SCAN_BUFFER_SIZE];
+            long bufferStart = 0;
+            long end = 0;
+            int filled = 0;
+            int read;
+            while ((read = channel.read(ByteBuffer.wrap(buffer, filled, buffer.length - filled))) != -1) {
+                int limit = filled + read;
+                int lineStart = 0;
+                for (int i = filled; i < limit; i++) {
+                    if (buffer[i] != '\n') continue;
+                    if (isRecord(parser, buffer, lineStart, i)) {
+                        if (count + 1 >= offsets.length) {
+                            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                        }
+                        offsets[count++] = bufferStart + lineStart;
+                        end = bufferStart + i + 1;
+                    }
+                    lineStart = i + 1;
+                }
+                bufferStart += lineStart;
+                filled = limit - lineStart;
+                System.arraycopy(buffer, lineStart, buffer, 0, filled);
+                if (filled == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+            }
+            // Последняя строка без перевода строки
+            if (filled > 0 && isRecord(parser, buffer, 0, filled)) {
+                if (count + 1 >= offsets.length) {
+                    offsets = Arrays.copyOf(offsets, offsets.length + 1);
+                }
+                offsets[count++] = bufferStart;
+                end = bufferStart + filled;
+            }
+            offsets[count] = end;
+
+            UserFileIndex index = new UserFileIndex(fileSize, modified, count,
+                    LongBuffer.wrap(Arrays.copyOf(offsets, count + 1)));
+            try {
+                index.write(indexPath(filePath));
+            } catch (IOException e) {
+                System.out.println("Не удалось сохранить индекс строк, используется индекс в памяти: " + e.getMessage());
+            }
+            return index;
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    // Смещение начала записи; для index == count — конец последней записи
+    public long getOffset(long index) {
+        if (index < 0 || index > count) {
+            throw new IndexOutOfBoundsException("Запись " + index + " вне диапазона [0, " + count + "]");
+        }
+        return offsets.get((int) index);
+    }
+
+    // Границы parts диапазонов записей с почти равным числом записей: [r[k], r[k + 1])
+    public long[] splitRanges(int parts) {
+        if (parts < 1) {
+            throw new IllegalArgumentException("Число диапазонов должно быть положительным: " + parts);
+        }
+        long[] ranges = new long[parts + 1];
+        for (int i = 0; i <= parts; i++) {
+            ranges[i] = count * i / parts;
+        }
+        return ranges;
+    }
+
+    private void write(Path target) throws IOException {
+        Path temp = Paths.get(target + ".tmp");
+        try {
+            writeTo(temp);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Заголовок (32 байта, big-endian): magic "PUIX" | version u16 | reserved u16 | fileSize i64 | modified i64 | count i64,
+    // затем (count + 1) x i64: начало каждой записи и конец последней. Размер и время изменения файла
+    // в заголовке отличают устаревший индекс
+    private void writeTo(Path temp) throws IOException {
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+            buffer.putInt(MAGIC);
+            buffer.putShort(VERSION);
+            buffer.putShort((short) 0);
+            buffer.putLong(fileSize);
+            buffer.putLong(modified);
+            buffer.putLong(count);
+            for (int i = 0; i <= count; i++) {
+                if (buffer.remaining() < Long.BYTES) {
+                    flush(channel, buffer);
+                }
+                buffer.putLong(offsets.get(i));
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static boolean isRecord(UserLineParser parser, byte[] buffer, int from, int to) {
+        return parser.parse(buffer, from, to) == UserLineParser.OK && parser.validate() == UserLineParser.OK;
+    }
+
+    private static Path checkPlain(String filePath) {
+        Path path = Paths.get(filePath);
+        if (GzipUserFiles.isGzip(path)) {
+            throw new IllegalArgumentException("Индекс строк не поддерживается для сжатых файлов: " + filePath);
+        }
+        return path;
+    }
+}
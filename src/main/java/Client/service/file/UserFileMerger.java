@@ -0,0 +1,210 @@
+package Client.service.file;
+
+import Client.model.User;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Объединение файлов без загрузки в коллекцию: склейка через transferTo и k-путевое слияние
+public class UserFileMerger {
+
+    public static final Comparator<User> NAME_PASSWORD_MAIL = Comparator
+            .comparing(User::getName)
+            .thenComparing(User::getPassword)
+            .thenComparing(User::getMail);
+
+    private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+
+    private final FileReaderService fileReader = new FileReaderService();
+
+    // Возвращает размер результата в байтах
+    public long concat(List<String> inputs, String output) throws IOException {
+        Path target = Paths.get(output);
+        boolean compressed = GzipUserFiles.isGzip(target);
+        List<Path> sources = checkInputs(inputs, target);
+        for (Path source : sources) {
+            if (GzipUserFiles.isGzip(source) != compressed) {
+                throw new IllegalArgumentException("Склеивать можно только файлы с тем же сжатием, что и результат: " + source);
+            }
+        }
+
+        try (UserFileWriter writer = UserFileWriter.open(target, false)) {
+            writer.writeLine(FileWriterService.FILE_HEADER);
+        }
+
+        byte[] lineSeparator = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (Path source : sources) {
+                try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+                    long size = in.size();
+                    // В сжатом файле заголовок внутри gzip-члена; члены склеиваются целиком, это валидный gzip
+                    long start = compressed ? 0 : bodyStart(in, size);
+                    long position = start;
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                    if (!compressed && start < size && !endsWithNewline(in, size)) {
+                        ByteBuffer separator = ByteBuffer.wrap(lineSeparator);
+                        while (separator.hasRemaining()) {
+                            out.write(separator);
+                        }
+                    }
+                }
+            }
+            out.force(false);
+        }
+
+        long bytes = Files.size(target);
+        System.out.println("Склеено файлов: " + sources.size() + ", размер результата: " + bytes + " байт");
+        return bytes;
+    }
+
+    public long mergeSorted(List<String> inputs, String output) throws IOException {
+        return mergeSorted(inputs, output, NAME_PASSWORD_MAIL);
+    }
+
+    // Входные файлы должны быть отсортированы тем же компаратором; возвращает число записанных пользователей
+    public long mergeSorted(List<String> inputs, String output, Comparator<User> comparator) throws IOException {
+        Path target = Paths.get(output);
+        List<Path> paths = checkInputs(inputs, target);
+
+        List<Source> sources = new ArrayList<>(paths.size());
+        // При равных записях порядок определяется номером файла, слияние устойчиво
+        PriorityQueue<Source> queue = new PriorityQueue<>(Math.max(1, paths.size()), (a, b) -> {
+            int result = comparator.compare(a.current, b.current);
+            return result != 0 ? result : Integer.compare(a.index, b.index);
+        });
+        long written = 0;
+        long skipped = 0;
+        try {
+            for (int i = 0; i < paths.size(); i++) {
+                Source source = new Source(i, paths.get(i), fileReader.openReader(paths.get(i).toString()));
+                sources.add(source);
+                if (source.advance(comparator)) {
+                    queue.add(source);
+                }
+            }
+
+            try (UserFileWriter writer = UserFileWriter.open(target, false)) {
+                writer.writeLine(FileWriterService.FILE_HEADER);
+                while (!queue.isEmpty()) {
+                    Source source = queue.poll();
+                    writer.writeUser(source.current);
+                    written++;
+                    if (source.advance(comparator)) {
+                        queue.add(source);
+                    }
+                }
+            }
+        } finally {
+            for (Source source : sources) {
+                skipped += source.skipped;
+                source.reader.close();
+            }
+        }
+
+        System.out.println("Слито файлов: " + paths.size() + ", записей: " + written + ", пропущено строк: " + skipped);
+        return written;
+    }
+
+    private List<Path> checkInputs(List<String> inputs, Path target) throws IOException {
+        if (inputs.isEmpty()) {
+            throw new IllegalArgumentException("Не указаны файлы для объединения");
+        }
+        List<Path> sources = new ArrayList<>(inputs.size());
+        for (String input : inputs) {
+            Path source = Paths.get(input);
+            if (!Files.isReadable(source)) {
+                throw new NoSuchFileException(input);
+            }
+            if (Files.exists(target) && Files.isSameFile(source, target)) {
+                throw new IllegalArgumentException("Результат не может совпадать с входным файлом: " + input);
+            }
+            sources.add(source);
+        }
+        return sources;
+    }
+
+    // Смещение первой строки после начального блока пустых строк и комментариев
+    private long bodyStart(FileChannel channel, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long lineStart = 0;
+        long position = 0;
+        boolean contentSeen = false;
+
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n') {
+                    lineStart = position + i + 1;
+                    contentSeen = false;
+                } else if (!contentSeen && (b & 0xFF) > ' ') {
+                    if (b != '#') {
+                        return lineStart;
+                    }
+                    contentSeen = true;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private boolean endsWithNewline(FileChannel channel, long size) throws IOException {
+        ByteBuffer last = ByteBuffer.allocate(1);
+        channel.read(last, size - 1);
+        return last.get(0) == '\n';
+    }
+
+    private static final class Source {
+        private final int index;
+        private final Path path;
+        private final BufferedReader reader;
+        private final UserLineParser parser = new UserLineParser();
+        private User current;
+        private long lineNumber;
+        private long skipped;
+
+        private Source(int index, Path path, BufferedReader reader) {
+            this.index = index;
+            this.path = path;
+            this.reader = reader;
+        }
+
+        // Переходит к следующей валидной записи; false, если файл закончился
+        private boolean advance(Comparator<User> comparator) throws IOException {
+            User previous = current;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                int status = parser.parse(line);
+                if (status == UserLineParser.SKIP) {
+                    continue;
+                }
+                User user = status == UserLineParser.OK ? parser.toResult().getUser() : null;
+                if (user == null) {
+                    skipped++;
+                    continue;
+                }
+                current = user;
+                if (previous != null && comparator.compare(previous, current) > 0) {
+                    throw new IOException("Файл не отсортирован: " + path + ", строка " + lineNumber);
+                }
+                return true;
+            }
+            current = null;
+            return false;
+        }
+    }
+}
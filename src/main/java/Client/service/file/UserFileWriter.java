@@ -0,0 +1,182 @@
+package Client.service.file;
+
+import Client.model.User;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Потоковая запись name;password;mail в UTF-8 через переиспользуемый буфер и FileChannel
+public class UserFileWriter implements Closeable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+    // Максимум байт UTF-8 на один char (суррогатная пара дает 4 байта на 2 char)
+    private static final int MAX_BYTES_PER_CHAR = 3;
+
+    private final FileChannel channel;
+    private final byte[] buffer;
+    private final ByteBuffer view;
+    private final GzipUserFiles.MemberEncoder encoder;
+    private int position;
+    private long bytesWritten;
+
+    private UserFileWriter(FileChannel channel, int bufferSize, boolean compressed) {
+        this.channel = channel;
+        this.buffer = new byte[bufferSize];
+        this.view = ByteBuffer.wrap(buffer);
+        this.encoder = compressed ? new GzipUserFiles.MemberEncoder() : null;
+    }
+
+    public static UserFileWriter open(Path path, boolean append) throws IOException {
+        return open(path, append, DEFAULT_BUFFER_SIZE);
+    }
+
+    public static UserFileWriter open(Path path, boolean append, int bufferSize) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        FileChannel channel = append
+                ? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)
+                : FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        return new UserFileWriter(channel, bufferSize, GzipUserFiles.isGzip(path));
+    }
+
+    public static byte[] encodeLine(String text) {
+        byte[] content = text.getBytes(StandardCharsets.UTF_8);
+        byte[] line = new byte[content.length + LINE_SEPARATOR.length];
+        System.arraycopy(content, 0, line, 0, content.length);
+        System.arraycopy(LINE_SEPARATOR, 0, line, content.length, LINE_SEPARATOR.length);
+        return line;
+    }
+
+    public void writeUser(User user) throws IOException {
+        ensureCapacity(maxEncodedSize(user));
+        position = encodeUser(user, buffer, position);
+    }
+
+    // Верхняя граница размера строки пользователя в UTF-8 вместе с переводом строки
+    static int maxEncodedSize(User user) {
+        return (user.getName().length() + user.getPassword().length() + user.getMail().length()) * MAX_BYTES_PER_CHAR
+                + 2 + LINE_SEPARATOR.length;
+    }
+
+    // Кодирует строку пользователя в буфер с позиции position; в буфере должно быть maxEncodedSize(user) байт
+    static int encodeUser(User user, byte[] buffer, int position) {
+        position = encode(user.getName(), buffer, position);
+        buffer[position++] = ';';
+        position = encode(user.getPassword(), buffer, position);
+        buffer[position++] = ';';
+        position = encode(user.getMail(), buffer, position);
+        System.arraycopy(LINE_SEPARATOR, 0, buffer, position, LINE_SEPARATOR.length);
+        return position + LINE_SEPARATOR.length;
+    }
+
+    public void writeLine(String text) throws IOException {
+        writeRaw(encodeLine(text));
+    }
+
+    // Запись заранее закодированных байт, например строки-комментария, общей для всей партии
+    public void writeRaw(byte[] bytes) throws IOException {
+        writeRaw(bytes, bytes.length);
+    }
+
+    public void writeRaw(byte[] bytes, int length) throws IOException {
+        if (length > buffer.length) {
+            flush();
+            write(bytes, length);
+            return;
+        }
+        ensureCapacity(length);
+        System.arraycopy(bytes, 0, buffer, position, length);
+        position += length;
+    }
+
+    // Объем записанных данных до сжатия
+    public long getBytesWritten() {
+        return bytesWritten + position;
+    }
+
+    // Сброс всегда приходится на конец строки, поэтому gzip-член содержит только целые строки
+    public void flush() throws IOException {
+        if (position == 0) return;
+        write(buffer, position);
+        position = 0;
+    }
+
+    public void force() throws IOException {
+        flush();
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            if (encoder != null) {
+                encoder.end();
+            }
+            channel.close();
+        }
+    }
+
+    private void write(byte[] data, int length) throws IOException {
+        ByteBuffer source;
+        if (encoder != null) {
+            int memberSize = encoder.encode(data, 0, length);
+            source = ByteBuffer.wrap(encoder.getOutput(), 0, memberSize);
+        } else if (data == buffer) {
+            source = view.clear().limit(length);
+        } else {
+            source = ByteBuffer.wrap(data, 0, length);
+        }
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+        bytesWritten += length;
+    }
+
+    private void ensureCapacity(int size) throws IOException {
+        if (buffer.length - position < size) {
+            flush();
+        }
+        if (size > buffer.length) {
+            throw new IllegalArgumentException("Запись не помещается в буфер: " + size + " байт");
+        }
+    }
+
+    private static int encode(String value, byte[] buffer, int position) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Одиночный суррогат кодируется как '?', так же как String.getBytes
+                buffer[position++] = '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return position;
+    }
+}
@@ -0,0 +1,212 @@
+package Client.service.file;
+
+import Client.model.User;
+import Client.model.UserResult;
+import Client.service.validation.UserValidator;
+
+import java.nio.charset.StandardCharsets;
+
+// Разбор строки name;password;mail по индексам без подстрок; один парсер на поток
+public final class UserLineParser {
+
+    public static final int OK = 0;
+    public static final int SKIP = 1;
+    public static final int ERROR_FORMAT = 2;
+    public static final int ERROR_NAME = 3;
+    public static final int ERROR_PASSWORD = 4;
+    public static final int ERROR_MAIL = 5;
+
+    // Символ BMP занимает в UTF-8 не больше трех байт
+    private static final int MAX_UTF8_BYTES_PER_CHAR = 3;
+
+    private CharSequence chars;
+    private byte[] bytes;
+
+    private int nameStart;
+    private int nameEnd;
+    private int passwordStart;
+    private int passwordEnd;
+    private int mailStart;
+    private int mailEnd;
+
+    private String name;
+    private String password;
+    private String mail;
+
+    public int parse(CharSequence line) {
+        reset();
+        this.chars = line;
+
+        int from = 0;
+        int to = line.length();
+        while (from < to && line.charAt(from) <= ' ') from++;
+        while (to > from && line.charAt(to - 1) <= ' ') to--;
+        if (from == to || line.charAt(from) == '#') {
+            return SKIP;
+        }
+
+        int first = indexOf(line, from, to);
+        int second = first < 0 ? -1 : indexOf(line, first + 1, to);
+        if (second < 0) {
+            return ERROR_FORMAT;
+        }
+        int third = indexOf(line, second + 1, to);
+        int rawMailEnd = third < 0 ? to : third;
+        // String.split(";") отбрасывает только пустые хвостовые поля
+        if (rawMailEnd == second + 1) {
+            return ERROR_FORMAT;
+        }
+        for (int i = rawMailEnd; i < to; i++) {
+            if (line.charAt(i) != ';') return ERROR_FORMAT;
+        }
+
+        nameStart = skip(line, from, first);
+        nameEnd = trim(line, nameStart, first);
+        passwordStart = skip(line, first + 1, second);
+        passwordEnd = trim(line, passwordStart, second);
+        mailStart = skip(line, second + 1, rawMailEnd);
+        mailEnd = trim(line, mailStart, rawMailEnd);
+
+        return checkLengths(1);
+    }
+
+    public int parse(byte[] line, int from, int to) {
+        reset();
+        this.bytes = line;
+
+        while (from < to && (line[from] & 0xFF) <= ' ') from++;
+        while (to > from && (line[to - 1] & 0xFF) <= ' ') to--;
+        if (from == to || line[from] == '#') {
+            return SKIP;
+        }
+
+        int first = indexOf(line, from, to);
+        int second = first < 0 ? -1 : indexOf(line, first + 1, to);
+        if (second < 0) {
+            return ERROR_FORMAT;
+        }
+        int third = indexOf(line, second + 1, to);
+        int rawMailEnd = third < 0 ? to : third;
+        if (rawMailEnd == second + 1) {
+            return ERROR_FORMAT;
+        }
+        for (int i = rawMailEnd; i < to; i++) {
+            if (line[i] != ';') return ERROR_FORMAT;
+        }
+
+        // Байты <= ' ' в UTF-8 встречаются только как ASCII, поэтому обрезка совпадает с String.trim()
+        nameStart = skip(line, from, first);
+        nameEnd = trim(line, nameStart, first);
+        passwordStart = skip(line, first + 1, second);
+        passwordEnd = trim(line, passwordStart, second);
+        mailStart = skip(line, second + 1, rawMailEnd);
+        mailEnd = trim(line, mailStart, rawMailEnd);
+
+        int status = checkLengths(MAX_UTF8_BYTES_PER_CHAR);
+        // Ослабленная проверка могла пропустить более раннее поле: уточняем код ошибки, как в символьном разборе
+        if (status > ERROR_NAME && !UserValidator.isValidName(getName())) return ERROR_NAME;
+        if (status > ERROR_PASSWORD && !UserValidator.isValidPassword(getPassword())) return ERROR_PASSWORD;
+        return status;
+    }
+
+    // Для байтовых строк длина в символах неизвестна до декодирования, поэтому верхняя граница ослаблена
+    private int checkLengths(int unitsPerChar) {
+        int nameLength = nameEnd - nameStart;
+        if (nameLength < UserValidator.MIN_NAME_LENGTH || nameLength > UserValidator.MAX_NAME_LENGTH * unitsPerChar) {
+            return ERROR_NAME;
+        }
+        int passwordLength = passwordEnd - passwordStart;
+        if (passwordLength < UserValidator.MIN_PASSWORD_LENGTH || passwordLength > UserValidator.MAX_PASSWORD_LENGTH * unitsPerChar) {
+            return ERROR_PASSWORD;
+        }
+        int mailLength = mailEnd - mailStart;
+        if (mailLength == 0 || mailLength > UserValidator.MAX_MAIL_LENGTH) {
+            return ERROR_MAIL;
+        }
+        return OK;
+    }
+
+    // Полная проверка после успешного parse: создает строки и проверяет формат email
+    public int validate() {
+        if (bytes != null) {
+            if (!UserValidator.isValidName(getName())) return ERROR_NAME;
+            if (!UserValidator.isValidPassword(getPassword())) return ERROR_PASSWORD;
+        }
+        if (!UserValidator.isValidMail(getMail())) return ERROR_MAIL;
+        return OK;
+    }
+
+    public User toUser() {
+        return toResult().orElseThrow();
+    }
+
+    // Проверка и создание пользователя за один проход; validate() перед вызовом не нужен
+    public UserResult toResult() {
+        return User.tryCreate(getName(), getPassword(), getMail());
+    }
+
+    public String getName() {
+        if (name == null) name = extract(nameStart, nameEnd);
+        return name;
+    }
+
+    public String getPassword() {
+        if (password == null) password = extract(passwordStart, passwordEnd);
+        return password;
+    }
+
+    public String getMail() {
+        if (mail == null) mail = extract(mailStart, mailEnd);
+        return mail;
+    }
+
+    private String extract(int start, int end) {
+        if (bytes != null) {
+            return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+        }
+        return chars.subSequence(start, end).toString();
+    }
+
+    private void reset() {
+        chars = null;
+        bytes = null;
+        name = null;
+        password = null;
+        mail = null;
+        nameStart = nameEnd = passwordStart = passwordEnd = mailStart = mailEnd = 0;
+    }
+
+    private static int indexOf(CharSequence line, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (line.charAt(i) == ';') return i;
+        }
+        return -1;
+    }
+
+    private static int skip(CharSequence line, int from, int to) {
+        while (from < to && line.charAt(from) <= ' ') from++;
+        return from;
+    }
+
+    private static int trim(CharSequence line, int from, int to) {
+        while (to > from && line.charAt(to - 1) <= ' ') to--;
+        return to;
+    }
+
+    private static int indexOf(byte[] line, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (line[i] == ';') return i;
+        }
+        return -1;
+    }
+
+    private static int skip(byte[] line, int from, int to) {
+        while (from < to && (line[from] & 0xFF) <= ' ') from++;
+        return from;
+    }
+
+    private static int trim(byte[] line, int from, int to) {
+        while (to > from && (line[to - 1] & 0xFF) <= ' ') to--;
+        return to;
+    }
+}
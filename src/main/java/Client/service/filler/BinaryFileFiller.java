@@ -0,0 +1,59 @@
+package Client.service.filler;
+
+import Client.collection.CustomUserCollection;
+import Client.model.User;
+import Client.service.file.ColumnarUserFormat;
+import Client.service.file.FileReaderService;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+public class BinaryFileFiller implements Filler {
+
+    private final FileReaderService fileReader;
+
+    public BinaryFileFiller() {
+        this.fileReader = new FileReaderService();
+    }
+
+    @Override
+    public List<User> fill(int count) {
+        System.out.print("Введите путь к бинарному файлу: ");
+        Scanner scanner = new Scanner(System.in);
+        String filePath = scanner.nextLine().trim();
+        return fillFromPath(filePath);
+    }
+
+    public List<User> fillFromPath(String filePath) {
+        if (filePath == null || filePath.trim().isEmpty()) {
+            System.out.println("❌ Не указан путь к файлу");
+            return new ArrayList<>();
+        }
+
+        System.out.println("\n" + getDescription());
+        System.out.println("Файл: " + filePath);
+
+        if (!fileReader.isReadable(filePath)) {
+            System.out.println("❌ Файл не найден или недоступен: " + fileReader.getAbsolutePath(filePath));
+            return new ArrayList<>();
+        }
+
+        try {
+            // Колоночный файл отличается сигнатурой, отдельный пункт меню не нужен
+            CustomUserCollection users = ColumnarUserFormat.isColumnar(Paths.get(filePath))
+                    ? fileReader.readColumnar(filePath)
+                    : fileReader.readBinaryFile(filePath);
+            return users.toList();
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("❌ Ошибка чтения бинарного файла: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "=== Загрузка из бинарного файла ===";
+    }
+}
@@ -1,19 +1,40 @@
 package Client.service.filler;
 
+import Client.collection.CustomUserCollection;
+import Client.collection.VersionedUserCollection;
+import Client.model.CompactUser;
 import Client.model.User;
+import Client.service.file.FileFollower;
 import Client.service.file.FileReaderService;
-import Client.service.validation.UserValidator;
+import Client.service.file.LoadReport;
+import Client.service.file.ResumableFileLoader;
+import Client.service.file.ShardedUserFiles;
+import Client.service.file.UserDeduplicator;
+import Client.service.file.UserFileCompactor;
+import Client.service.file.UserLineParser;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class FileFiller implements Filler {
 
     private final FileReaderService fileReader;
+    private final ResumableFileLoader loader = new ResumableFileLoader();
     private String lastFilePath;
     private int totalLines = 0;
     private int validLines = 0;
+    private int firstInvalidLine = 0;
+    private UserFileCompactor.Checkpoint checkpoint;
+    private LoadReport report = new LoadReport();
+    private UserDeduplicator.Result deduplication;
 
     public FileFiller() {
         this.fileReader = new FileReaderService();
@@ -28,75 +49,208 @@ public class FileFiller implements Filler {
     }
 
     public List<User> fillFromPath(String filePath) {
-        if (filePath == null || filePath.trim().isEmpty()) {
+        return collect(filePath, FileFiller::toUser);
+    }
+
+    // Загрузка без повторов: дубликаты отбрасываются на лету, числа вхождений доступны через getLastDeduplication()
+    public List<User> fillDistinctFromPath(String filePath) {
+        List<User> users = new ArrayList<>();
+        this.deduplication = null;
+        try (UserDeduplicator deduplicator = new UserDeduplicator(users::add)) {
+            if (load(filePath, FileFiller::toUser, deduplicator, ResumableFileLoader.Mode.PLAIN) <= 0) {
+                return new ArrayList<>();
+            }
+            deduplication = deduplicator.finish();
+            deduplication.print();
+            return users;
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("❌ Ошибка удаления дубликатов: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    public List<CompactUser> fillCompactFromPath(String filePath) {
+        return collect(filePath, FileFiller::toCompactUser);
+    }
+
+    // Потоковая загрузка: каждый пользователь передается в consumer сразу после разбора строки
+    public int fillFromPath(String filePath, Consumer<User> consumer) {
+        return load(filePath, FileFiller::toUser, consumer, ResumableFileLoader.Mode.PLAIN);
+    }
+
+    // То же с контрольными точками: прогресс периодически сохраняется в файл рядом с загружаемым,
+    // прерванную загрузку можно продолжить через resumeFromPath
+    public int fillFromPathWithCheckpoints(String filePath, Consumer<User> consumer) {
+        return load(filePath, FileFiller::toUser, consumer, ResumableFileLoader.Mode.CHECKPOINT);
+    }
+
+    // Продолжение прерванной потоковой загрузки: consumer получает только записи после контрольной точки
+    public int resumeFromPath(String filePath, Consumer<User> consumer) {
+        return load(filePath, FileFiller::toUser, consumer, ResumableFileLoader.Mode.RESUME);
+    }
+
+    // Режим слежения: строки, дописанные в файл другими процессами, добавляются в коллекцию по мере появления.
+    // Первый проход выполняется сразу и загружает уже существующее содержимое.
+    // При ротации или компактации файла из коллекции удаляются только записи, добавленные этим слежением
+    // (по ссылке), и добавляются заново прочитанные; остальные пользователи сохраняются.
+    public FileFollower follow(String filePath, CustomUserCollection target) throws IOException {
+        return startFollower(filePath, new FileFollower.Sink() {
+            private Set<User> contributed = newIdentitySet();
+
+            @Override
+            public void append(List<User> users) {
+                synchronized (target) {
+                    target.addAll(users);
+                }
+                contributed.addAll(users);
+            }
+
+            @Override
+            public void replace(List<User> users) {
+                synchronized (target) {
+                    CustomUserCollection result = replaceContributed(target.toList(), contributed, users);
+                    target.clear();
+                    target.addAll(result.toList());
+                }
+                contributed = newIdentitySet();
+                contributed.addAll(users);
+            }
+        });
+    }
+
+    // Для хранилища со снимками каждая партия публикуется новой версией поверх текущего снимка,
+    // поэтому сортировки и загрузки, опубликованные во время слежения, не теряются
+    public FileFollower follow(String filePath, VersionedUserCollection store) throws IOException {
+        return startFollower(filePath, new FileFollower.Sink() {
+            private Set<User> contributed = newIdentitySet();
+
+            @Override
+            public void append(List<User> users) {
+                store.update(current -> concat(current.toList(), users));
+                contributed.addAll(users);
+            }
+
+            @Override
+            public void replace(List<User> users) {
+                Set<User> previous = contributed;
+                store.update(current -> replaceContributed(current.toList(), previous, users));
+                contributed = newIdentitySet();
+                contributed.addAll(users);
+            }
+        });
+    }
+
+    private static Set<User> newIdentitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    private static CustomUserCollection replaceContributed(List<User> current, Set<User> contributed, List<User> users) {
+        CustomUserCollection result = new CustomUserCollection(current.size() + users.size());
+        for (User user : current) {
+            if (!contributed.contains(user)) {
+                result.add(user);
+            }
+        }
+        result.addAll(users);
+        return result;
+    }
+
+    private static CustomUserCollection concat(List<User> first, List<User> second) {
+        CustomUserCollection result = new CustomUserCollection(first.size() + second.size());
+        result.addAll(first);
+        result.addAll(second);
+        return result;
+    }
+
+    private FileFollower startFollower(String filePath, FileFollower.Sink sink) throws IOException {
+        this.lastFilePath = filePath;
+        FileFollower follower = new FileFollower(Paths.get(filePath), sink);
+        int loaded = follower.poll();
+        System.out.println("Слежение за файлом " + filePath + ", загружено сразу: " + loaded);
+        follower.start();
+        return follower;
+    }
+
+    // Параллельная загрузка шардированного экспорта (SaveMode.SHARDED) по его манифесту
+    public List<User> fillFromShards(String basePath) {
+        if (basePath == null || basePath.trim().isEmpty()) {
             System.out.println("❌ Не указан путь к файлу");
             return new ArrayList<>();
         }
+        this.lastFilePath = basePath;
+        System.out.println("\n=== Параллельная загрузка шардов ===");
+        System.out.println("Экспорт: " + basePath);
+
+        try {
+            long startTime = System.currentTimeMillis();
+            List<User> users = new ShardedUserFiles().read(basePath);
+            System.out.println("✓ Загружено из шардов: " + users.size() + " за "
+                    + (System.currentTimeMillis() - startTime) + " мс");
+            return users;
+        } catch (IOException e) {
+            System.out.println("❌ Ошибка чтения шардов: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private <T> List<T> collect(String filePath, Function<UserLineParser, T> factory) {
+        List<T> users = new ArrayList<>();
+        if (load(filePath, factory, users::add, ResumableFileLoader.Mode.PLAIN) <= 0) {
+            return new ArrayList<>();
+        }
+        return users;
+    }
+
+    private <T> int load(String filePath, Function<UserLineParser, T> factory, Consumer<T> consumer,
+                         ResumableFileLoader.Mode mode) {
+        if (filePath == null || filePath.trim().isEmpty()) {
+            System.out.println("❌ Не указан путь к файлу");
+            return 0;
+        }
 
         this.lastFilePath = filePath;
         this.totalLines = 0;
         this.validLines = 0;
+        this.firstInvalidLine = 0;
+        this.checkpoint = null;
+        this.report = new LoadReport();
 
         System.out.println("\n" + getDescription());
         System.out.println("Файл: " + filePath);
 
         if (!checkFileAvailability(filePath)) {
-            return new ArrayList<>();
+            return 0;
         }
 
         try {
-            // Используем Stream API для чтения и обработки
-            List<User> users = readAndValidateUsersWithStream(filePath);
+            checkpoint = new UserFileCompactor().readCheckpoint(filePath);
+            validLines = (int) loader.load(filePath, factory, consumer, mode);
+            report = loader.getLastReport();
+            totalLines = (int) report.getLines();
+            List<LoadReport.Example> examples = report.getExamples();
+            firstInvalidLine = examples.isEmpty() ? 0 : (int) report.lineNumberOf(examples.get(0));
 
-            if (users.isEmpty()) {
+            if (validLines == 0) {
                 System.out.println("❌ Не удалось загрузить пользователей из файла.");
-                return new ArrayList<>();
+                return 0;
             }
 
             printStatistics();
-            return users;
+            return validLines;
 
         } catch (IOException e) {
             System.out.println("❌ Ошибка чтения файла: " + e.getMessage());
-            return new ArrayList<>();
+            return -1;
         }
     }
 
-    // Новая версия с использованием Stream API
-    private List<User> readAndValidateUsersWithStream(String filePath) throws IOException {
-        List<String> lines = java.nio.file.Files.readAllLines(java.nio.file.Paths.get(filePath));
-        totalLines = lines.size();
-
-        System.out.println("Всего строк в файле: " + totalLines);
-
-        List<User> users = lines.stream()
-                .skip(0) // можно пропустить заголовки если нужно
-                .map(String::trim)
-                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
-                .map(this::parseLineToUser)
-                .filter(user -> user != null)
-                .toList();
-
-        validLines = users.size();
-        return users;
+    private static User toUser(UserLineParser parser) {
+        return parser.toResult().getUser();
     }
 
-    private User parseLineToUser(String line) {
-        String[] parts = line.split(";");
-        if (parts.length != 3) return null;
-
-        String name = parts[0].trim();
-        String password = parts[1].trim();
-        String mail = parts[2].trim();
-
-        if (!UserValidator.isValidUser(name, password, mail)) return null;
-
+    private static CompactUser toCompactUser(UserLineParser parser) {
         try {
-            return User.builder()
-                    .name(name)
-                    .password(password)
-                    .mail(mail)
-                    .build();
+            return CompactUser.of(parser.getName(), parser.getPassword(), parser.getMail());
         } catch (IllegalArgumentException e) {
             return null;
         }
@@ -127,6 +281,14 @@ public class FileFiller implements Filler {
         System.out.println("  - Валидных пользователей: " + validLines);
         System.out.println("  - Процент валидных: " +
                 String.format("%.1f%%", totalLines > 0 ? validLines * 100.0 / totalLines : 0));
+        if (firstInvalidLine > 0) {
+            System.out.println("  - Первая невалидная строка: " + firstInvalidLine);
+        }
+        if (checkpoint != null) {
+            System.out.println("  - Из снимка после компактации: " + checkpoint.getRecords()
+                    + ", дописано после него: " + Math.max(0, validLines - checkpoint.getRecords()));
+        }
+        report.printErrors();
         System.out.println("✓ Успешно загружено: " + validLines);
     }
 
@@ -138,6 +300,14 @@ public class FileFiller implements Filler {
         return fileReader.getAbsolutePath(filePath);
     }
 
+    public LoadReport getLastReport() {
+        return report;
+    }
+
+    public UserDeduplicator.Result getLastDeduplication() {
+        return deduplication;
+    }
+
     public String getLastFilePath() {
         return lastFilePath;
     }
@@ -0,0 +1,71 @@
+package Client.service.filler;
+
+import Client.model.User;
+import Client.service.file.FileReaderService;
+import Client.service.file.MappedFileLoader;
+import Client.service.validation.ValidationCache;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+public class MappedFileFiller implements Filler {
+
+    private final FileReaderService fileReader;
+    private final MappedFileLoader loader;
+
+    public MappedFileFiller() {
+        this(new MappedFileLoader(Runtime.getRuntime().availableProcessors(), new ValidationCache()));
+    }
+
+    public MappedFileFiller(MappedFileLoader loader) {
+        this.fileReader = new FileReaderService();
+        this.loader = loader;
+    }
+
+    @Override
+    public List<User> fill(int count) {
+        System.out.print("Введите путь к файлу: ");
+        Scanner scanner = new Scanner(System.in);
+        String filePath = scanner.nextLine().trim();
+        return fillFromPath(filePath);
+    }
+
+    public List<User> fillFromPath(String filePath) {
+        if (filePath == null || filePath.trim().isEmpty()) {
+            System.out.println("❌ Не указан путь к файлу");
+            return new ArrayList<>();
+        }
+
+        System.out.println("\n" + getDescription());
+        System.out.println("Файл: " + filePath);
+
+        if (!fileReader.isReadable(filePath)) {
+            System.out.println("❌ Файл не найден или недоступен: " + fileReader.getAbsolutePath(filePath));
+            return new ArrayList<>();
+        }
+
+        try {
+            long startTime = System.currentTimeMillis();
+            List<User> users = loader.load(filePath);
+            long elapsed = System.currentTimeMillis() - startTime;
+
+            System.out.println("\n📊 Статистика загрузки (mmap):");
+            loader.getLastReport().print();
+            System.out.println("  - Время загрузки: " + elapsed + " мс");
+            if (loader.getValidationCache() != null) {
+                loader.getValidationCache().print();
+            }
+            return users;
+
+        } catch (IOException e) {
+            System.out.println("❌ Ошибка чтения файла: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "=== Параллельная загрузка из файла (mmap) ===";
+    }
+}
@@ -1,11 +1,15 @@
 package Client.service.filler;
 
+import Client.model.CompactUser;
 import Client.model.User;
-import Client.service.validation.UserValidator;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 public class RandomFiller implements Filler {
 
@@ -22,6 +26,21 @@ public class RandomFiller implements Filler {
             "gmail.com", "yandex.ru", "mail.ru", "yahoo.com", "outlook.com"
     };
 
+    private static final String PASSWORD_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+    // Транслитерация зависит только от имени, поэтому считается один раз
+    private static final String[] LATIN_NAMES = new String[NAMES.length];
+
+    // Пользователей в одном фрагменте массовой генерации. Фрагмент i всегда получает i-й split()
+    // от генератора с заданным seed, поэтому результат не зависит от числа потоков.
+    private static final int BULK_CHUNK_SIZE = 64 * 1024;
+
+    static {
+        for (int i = 0; i < NAMES.length; i++) {
+            LATIN_NAMES[i] = transliterate(NAMES[i].toLowerCase());
+        }
+    }
+
     public RandomFiller() {
         this.random = new Random();
     }
@@ -44,31 +63,105 @@ public class RandomFiller implements Filler {
             return new ArrayList<>();
         }
 
+        return generate(count, (name, password, mail) -> User.tryCreate(name, password, mail).getUser());
+    }
+
+    public List<CompactUser> fillCompact(int count) {
+        if (count <= 0) {
+            System.out.println(" Количество должно быть положительным");
+            return new ArrayList<>();
+        }
+        return generate(count, CompactUser::of);
+    }
+
+    public List<User> fillBulk(int count, long seed) {
+        return fillBulk(count, seed, Runtime.getRuntime().availableProcessors());
+    }
+
+    // Массовая генерация: одинаковые count и seed дают одинаковый список при любом parallelism
+    public List<User> fillBulk(int count, long seed, int parallelism) {
+        if (count <= 0) {
+            System.out.println(" Количество должно быть положительным");
+            return new ArrayList<>();
+        }
+
+        System.out.println("\n=== Массовая генерация случайных пользователей ===");
+        long startTime = System.currentTimeMillis();
+
+        // В long: для count около Integer.MAX_VALUE сумма и конец последнего фрагмента не помещаются в int
+        int chunkCount = (int) (((long) count + BULK_CHUNK_SIZE - 1) / BULK_CHUNK_SIZE);
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            randoms[i] = root.split();
+        }
+
+        User[] users = new User[count];
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Math.min(parallelism, chunkCount)));
+        try {
+            pool.submit(() -> IntStream.range(0, chunkCount).parallel().forEach(chunk ->
+                    generateChunk(randoms[chunk], users, chunk * BULK_CHUNK_SIZE,
+                            (int) Math.min(count, (chunk + 1L) * BULK_CHUNK_SIZE)))).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        System.out.println(" Сгенерировано: " + count + " за " + (System.currentTimeMillis() - startTime) + " мс");
+        return Arrays.asList(users);
+    }
+
+    private static void generateChunk(SplittableRandom random, User[] users, int from, int to) {
+        char[] password = new char[15];
+        StringBuilder mail = new StringBuilder(32);
+        for (int i = from; i < to; ) {
+            int nameIndex = random.nextInt(NAMES.length);
+
+            int length = random.nextInt(10) + 6;
+            for (int j = 0; j < length; j++) {
+                password[j] = PASSWORD_CHARS.charAt(random.nextInt(PASSWORD_CHARS.length()));
+            }
+
+            mail.setLength(0);
+            mail.append(LATIN_NAMES[nameIndex]);
+            if (random.nextBoolean()) {
+                mail.append(random.nextInt(1000));
+            }
+            mail.append('@').append(DOMAINS[random.nextInt(DOMAINS.length)]);
+
+            // Значения из словарей всегда валидны; tryCreate проверяет их один раз и без исключения
+            User user = User.tryCreate(NAMES[nameIndex], new String(password, 0, length), mail.toString()).getUser();
+            if (user != null) {
+                users[i++] = user;
+            }
+        }
+    }
+
+    private <T> List<T> generate(int count, UserFactory<T> factory) {
         resetStats();
-        List<User> users = new ArrayList<>();
+        List<T> users = new ArrayList<>(count);
         System.out.println("\n" + getDescription());
         System.out.print("Генерация " + count + " пользователей: ");
 
         while (users.size() < count && attempts < count * 10) {
             attempts++;
 
-            String name = generateRandomName();
+            int nameIndex = random.nextInt(NAMES.length);
+            String name = NAMES[nameIndex];
             String password = generateRandomPassword();
-            String mail = generateRandomMail(name);
-
-            if (UserValidator.isValidUser(name, password, mail)) {
-                try {
-                    User user = User.builder()
-                            .name(name)
-                            .password(password)
-                            .mail(mail)
-                            .build();
-                    users.add(user);
-                    generatedCount++;
-                    if (generatedCount % 10 == 0 || generatedCount == count) {
-                        System.out.print(".");
-                    }
-                } catch (IllegalArgumentException e) {
+            String mail = generateRandomMail(nameIndex);
+
+            // Фабрика проверяет поля сама и возвращает null для невалидных данных
+            T user;
+            try {
+                user = factory.create(name, password, mail);
+            } catch (IllegalArgumentException e) {
+                user = null;
+            }
+            if (user != null) {
+                users.add(user);
+                generatedCount++;
+                if (generatedCount % 10 == 0 || generatedCount == count) {
+                    System.out.print(".");
                 }
             }
         }
@@ -95,29 +188,24 @@ public class RandomFiller implements Filler {
         }
     }
 
-    private String generateRandomName() {
-        return NAMES[random.nextInt(NAMES.length)];
-    }
-
     private String generateRandomPassword() {
         int length = random.nextInt(10) + 6;
-        String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
         StringBuilder password = new StringBuilder();
         for (int i = 0; i < length; i++) {
-            password.append(chars.charAt(random.nextInt(chars.length())));
+            password.append(PASSWORD_CHARS.charAt(random.nextInt(PASSWORD_CHARS.length())));
         }
         return password.toString();
     }
 
-    private String generateRandomMail(String name) {
-        String latinName = transliterate(name.toLowerCase());
+    private String generateRandomMail(int nameIndex) {
+        String latinName = LATIN_NAMES[nameIndex];
         if (random.nextBoolean()) {
             latinName += random.nextInt(1000);
         }
         return latinName + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
     }
 
-    private String transliterate(String text) {
+    private static String transliterate(String text) {
         String[][] map = {
                 {"а", "a"}, {"б", "b"}, {"в", "v"}, {"г", "g"}, {"д", "d"},
                 {"е", "e"}, {"ё", "e"}, {"ж", "zh"}, {"з", "z"}, {"и", "i"},
@@ -134,4 +222,9 @@ public class RandomFiller implements Filler {
         }
         return result;
     }
+
+    @FunctionalInterface
+    private interface UserFactory<T> {
+        T create(String name, String password, String mail);
+    }
 }
\ No newline at end of file
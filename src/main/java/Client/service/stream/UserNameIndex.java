@@ -0,0 +1,139 @@
+package Client.service.stream;
+
+import Client.collection.CustomUserCollection;
+import Client.model.User;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+public class UserNameIndex {
+
+    private final List<User> users;
+    private final String[] names;
+    private final int[] positions;
+
+    private UserNameIndex(List<User> users, String[] names, int[] positions) {
+        this.users = users;
+        this.names = names;
+        this.positions = positions;
+    }
+
+    public static UserNameIndex build(CustomUserCollection collection) {
+        List<User> users = collection.toList();
+        Entry[] entries = new Entry[users.size()];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = new Entry(users.get(i).getName(), i);
+        }
+
+        // Стабильная параллельная сортировка: при равных именах сохраняется исходный порядок
+        Arrays.parallelSort(entries, Comparator.comparing((Entry e) -> e.name));
+
+        String[] names = new String[entries.length];
+        int[] positions = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            names[i] = entries[i].name;
+            positions[i] = entries[i].position;
+        }
+        return new UserNameIndex(users, names, positions);
+    }
+
+    public CustomUserCollection findByName(String name) {
+        if (name == null) return new CustomUserCollection();
+        return collect(lowerBound(name), upperBound(name));
+    }
+
+    public CustomUserCollection findByPrefix(String prefix) {
+        if (prefix == null) return new CustomUserCollection();
+        return collect(prefixLowerBound(prefix), prefixUpperBound(prefix));
+    }
+
+    // Диапазон [from, to): from включительно, to исключительно
+    public CustomUserCollection findByRange(String from, String to) {
+        if (from == null || to == null || from.compareTo(to) >= 0) return new CustomUserCollection();
+        return collect(lowerBound(from), lowerBound(to));
+    }
+
+    public int countByPrefix(String prefix) {
+        if (prefix == null) return 0;
+        return prefixUpperBound(prefix) - prefixLowerBound(prefix);
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    private CustomUserCollection collect(int from, int to) {
+        CustomUserCollection result = new CustomUserCollection();
+        for (int i = from; i < to; i++) {
+            result.add(users.get(positions[i]));
+        }
+        return result;
+    }
+
+    // Первый индекс с именем >= key
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = names.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (names[mid].compareTo(key) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // Первый индекс с именем > key
+    private int upperBound(String key) {
+        int low = 0;
+        int high = names.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (names[mid].compareTo(key) <= 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private int prefixLowerBound(String prefix) {
+        int low = 0;
+        int high = names.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareToPrefix(names[mid], prefix) < 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private int prefixUpperBound(String prefix) {
+        int low = 0;
+        int high = names.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareToPrefix(names[mid], prefix) <= 0) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // 0, если name начинается с prefix; иначе порядок name относительно всех строк с этим префиксом
+    private static int compareToPrefix(String name, String prefix) {
+        int length = Math.min(name.length(), prefix.length());
+        for (int i = 0; i < length; i++) {
+            int diff = name.charAt(i) - prefix.charAt(i);
+            if (diff != 0) return diff;
+        }
+        return name.length() < prefix.length() ? -1 : 0;
+    }
+
+    private static final class Entry {
+        private final String name;
+        private final int position;
+
+        private Entry(String name, int position) {
+            this.name = name;
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package Client.service.validation;
+
+import java.util.BitSet;
+
+// Результат UserValidator.validateBatch: битовая карта валидных строк, код ошибки и проверенные значения
+public final class BatchValidationResult {
+
+    public static final byte OK = 0;
+    public static final byte NAME_EMPTY = 1;
+    public static final byte NAME_TOO_SHORT = 2;
+    public static final byte NAME_TOO_LONG = 3;
+    public static final byte PASSWORD_EMPTY = 4;
+    public static final byte PASSWORD_TOO_SHORT = 5;
+    public static final byte PASSWORD_TOO_LONG = 6;
+    public static final byte MAIL_EMPTY = 7;
+    public static final byte MAIL_FORMAT = 8;
+    public static final byte MAIL_TOO_LONG = 9;
+
+    private final long[] words;
+    private final byte[] codes;
+    private final String[] names;
+    private final String[] passwords;
+    private final String[] mails;
+    private int validCount = -1;
+
+    BatchValidationResult(long[] words, byte[] codes, String[] names, String[] passwords, String[] mails) {
+        this.words = words;
+        this.codes = codes;
+        this.names = names;
+        this.passwords = passwords;
+        this.mails = mails;
+    }
+
+    // Заполнение при проверке; фрагменты параллельной проверки кратны 64 строкам и не делят слова карты
+    void set(int row, String name, String password, String mail, byte code) {
+        names[row] = name;
+        passwords[row] = password;
+        mails[row] = mail;
+        codes[row] = code;
+        if (code == OK) {
+            words[row >>> 6] |= 1L << row;
+        }
+    }
+
+    public static boolean isNameError(byte code) {
+        return code >= NAME_EMPTY && code <= NAME_TOO_LONG;
+    }
+
+    public static boolean isPasswordError(byte code) {
+        return code >= PASSWORD_EMPTY && code <= PASSWORD_TOO_LONG;
+    }
+
+    public static boolean isMailError(byte code) {
+        return code >= MAIL_EMPTY && code <= MAIL_TOO_LONG;
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    public boolean isValid(int row) {
+        return (words[row >>> 6] & (1L << row)) != 0;
+    }
+
+    public boolean isAllValid() {
+        return getValidCount() == codes.length;
+    }
+
+    public int getValidCount() {
+        if (validCount < 0) {
+            int count = 0;
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+            validCount = count;
+        }
+        return validCount;
+    }
+
+    // Копия битовой карты валидных строк
+    public BitSet getValidRows() {
+        return BitSet.valueOf(words);
+    }
+
+    // Номер первой невалидной строки или -1
+    public int firstInvalid() {
+        for (int i = 0; i < words.length; i++) {
+            long invalid = ~words[i];
+            if (i == words.length - 1 && codes.length % 64 != 0) {
+                invalid &= (1L << codes.length) - 1;
+            }
+            if (invalid != 0) {
+                return i * 64 + Long.numberOfTrailingZeros(invalid);
+            }
+        }
+        return -1;
+    }
+
+    public byte getErrorCode(int row) {
+        return codes[row];
+    }
+
+    public String getName(int row) {
+        return names[row];
+    }
+
+    public String getPassword(int row) {
+        return passwords[row];
+    }
+
+    public String getMail(int row) {
+        return mails[row];
+    }
+
+    // Сообщение для невалидной строки (null для валидной); строится при вызове
+    public String getMessage(int row) {
+        byte code = codes[row];
+        if (code == OK) {
+            return null;
+        }
+        String value = isNameError(code) ? getName(row)
+                : isPasswordError(code) ? getPassword(row)
+                : getMail(row);
+        return UserValidator.getErrorMessage(code, value);
+    }
+}
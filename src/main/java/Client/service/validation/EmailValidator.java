@@ -0,0 +1,80 @@
+package Client.service.validation;
+
+import java.util.Arrays;
+
+// Проверка email автоматом за один проход; язык тот же, что у ^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\.[A-Za-z]{2,}$
+public final class EmailValidator {
+
+    // Классы символов
+    private static final int LETTER = 0;
+    private static final int DIGIT_OR_HYPHEN = 1;
+    private static final int DOT = 2;
+    private static final int LOCAL_ONLY = 3;
+    private static final int AT = 4;
+    private static final int OTHER = 5;
+
+    // Состояния
+    private static final int START = 0;
+    private static final int LOCAL = 1;
+    private static final int DOMAIN_EMPTY = 2;
+    // Домен не пуст, но не оканчивается на .буквы после непустого префикса
+    private static final int DOMAIN = 3;
+    // После точки с непустым префиксом: 0, 1 и 2+ букв
+    private static final int TAIL_0 = 4;
+    private static final int TAIL_1 = 5;
+    private static final int TAIL_2 = 6;
+    private static final int REJECT = 7;
+
+    private static final byte[] CHAR_CLASS = new byte[128];
+    // Строка — текущее состояние, столбец — класс символа: LETTER, DIGIT_OR_HYPHEN, DOT, LOCAL_ONLY, AT, OTHER
+    private static final byte[][] TRANSITIONS = {
+            /* START        */ {LOCAL, LOCAL, LOCAL, LOCAL, REJECT, REJECT},
+            /* LOCAL        */ {LOCAL, LOCAL, LOCAL, LOCAL, DOMAIN_EMPTY, REJECT},
+            /* DOMAIN_EMPTY */ {DOMAIN, DOMAIN, DOMAIN, REJECT, REJECT, REJECT},
+            /* DOMAIN       */ {DOMAIN, DOMAIN, TAIL_0, REJECT, REJECT, REJECT},
+            /* TAIL_0       */ {TAIL_1, DOMAIN, TAIL_0, REJECT, REJECT, REJECT},
+            /* TAIL_1       */ {TAIL_2, DOMAIN, TAIL_0, REJECT, REJECT, REJECT},
+            /* TAIL_2       */ {TAIL_2, DOMAIN, TAIL_0, REJECT, REJECT, REJECT},
+            /* REJECT       */ {REJECT, REJECT, REJECT, REJECT, REJECT, REJECT},
+    };
+
+    static {
+        Arrays.fill(CHAR_CLASS, (byte) OTHER);
+        for (char c = 'a'; c <= 'z'; c++) CHAR_CLASS[c] = LETTER;
+        for (char c = 'A'; c <= 'Z'; c++) CHAR_CLASS[c] = LETTER;
+        for (char c = '0'; c <= '9'; c++) CHAR_CLASS[c] = DIGIT_OR_HYPHEN;
+        CHAR_CLASS['-'] = DIGIT_OR_HYPHEN;
+        CHAR_CLASS['.'] = DOT;
+        CHAR_CLASS['+'] = LOCAL_ONLY;
+        CHAR_CLASS['_'] = LOCAL_ONLY;
+        CHAR_CLASS['@'] = AT;
+    }
+
+    private EmailValidator() {
+    }
+
+    public static boolean matches(CharSequence mail) {
+        return run(START, mail, 0, mail.length()) == TAIL_2;
+    }
+
+    // Адрес допустим тогда и только тогда, когда до первого '@' допустимая локальная часть,
+    // а после него допустимый домен; домен проверяется отдельно для кэширования в ValidationCache
+    static boolean matchesLocal(CharSequence mail, int from, int to) {
+        return run(START, mail, from, to) == LOCAL;
+    }
+
+    static boolean matchesDomain(CharSequence mail, int from, int to) {
+        return run(DOMAIN_EMPTY, mail, from, to) == TAIL_2;
+    }
+
+    private static int run(int state, CharSequence mail, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = mail.charAt(i);
+            state = TRANSITIONS[state][c < 128 ? CHAR_CLASS[c] : OTHER];
+            if (state == REJECT) {
+                return REJECT;
+            }
+        }
+        return state;
+    }
+}
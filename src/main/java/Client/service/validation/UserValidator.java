@@ -1,37 +1,32 @@
 package Client.service.validation;
 
-import java.util.regex.Pattern;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
 
 public class UserValidator {
 
-    private static final Pattern EMAIL_PATTERN =
-            Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+    public static final int MIN_PASSWORD_LENGTH = 6;
+    public static final int MAX_PASSWORD_LENGTH = 100;
+    public static final int MIN_NAME_LENGTH = 2;
+    public static final int MAX_NAME_LENGTH = 50;
+    public static final int MAX_MAIL_LENGTH = 100;
 
-    private static final int MIN_PASSWORD_LENGTH = 6;
-    private static final int MAX_PASSWORD_LENGTH = 100;
-    private static final int MIN_NAME_LENGTH = 2;
-    private static final int MAX_NAME_LENGTH = 50;
-    private static final int MAX_MAIL_LENGTH = 100;
+    // Строк в одной задаче параллельной проверки; кратно 64, чтобы задачи писали в разные слова битовой карты
+    private static final int PARALLEL_CHUNK_SIZE = 64 * 64;
 
     public static boolean isValidName(String name) {
-        return name != null &&
-                !name.trim().isEmpty() &&
-                name.length() >= MIN_NAME_LENGTH &&
-                name.length() <= MAX_NAME_LENGTH;
+        return nameError(name) == BatchValidationResult.OK;
     }
 
     public static boolean isValidPassword(String password) {
-        return password != null &&
-                !password.trim().isEmpty() &&
-                password.length() >= MIN_PASSWORD_LENGTH &&
-                password.length() <= MAX_PASSWORD_LENGTH;
+        return passwordError(password) == BatchValidationResult.OK;
     }
 
+    // Строка, принятая автоматом, не содержит пробелов, поэтому отдельная проверка trim() не нужна
     public static boolean isValidMail(String mail) {
         return mail != null &&
-                !mail.trim().isEmpty() &&
-                EMAIL_PATTERN.matcher(mail).matches() &&
-                mail.length() <= MAX_MAIL_LENGTH;
+                mail.length() <= MAX_MAIL_LENGTH &&
+                EmailValidator.matches(mail);
     }
 
     public static boolean isValidUser(String name, String password, String mail) {
@@ -39,41 +34,135 @@ public class UserValidator {
     }
 
     public static String getNameErrorMessage(String name) {
-        if (name == null || name.trim().isEmpty()) {
-            return "Имя пользователя не может быть пустым";
-        }
-        if (name.length() < MIN_NAME_LENGTH) {
-            return String.format("Имя пользователя должно содержать минимум %d символа", MIN_NAME_LENGTH);
-        }
-        if (name.length() > MAX_NAME_LENGTH) {
-            return String.format("Имя пользователя не должно превышать %d символов", MAX_NAME_LENGTH);
-        }
-        return "Некорректное имя пользователя";
+        byte code = nameError(name);
+        return code == BatchValidationResult.OK ? "Некорректное имя пользователя" : getErrorMessage(code, name);
     }
 
     public static String getPasswordErrorMessage(String password) {
-        if (password == null || password.trim().isEmpty()) {
-            return "Пароль не может быть пустым";
-        }
-        if (password.length() < MIN_PASSWORD_LENGTH) {
-            return String.format("Пароль должен содержать минимум %d символов", MIN_PASSWORD_LENGTH);
-        }
-        if (password.length() > MAX_PASSWORD_LENGTH) {
-            return String.format("Пароль не должен превышать %d символов", MAX_PASSWORD_LENGTH);
-        }
-        return "Некорректный пароль";
+        byte code = passwordError(password);
+        return code == BatchValidationResult.OK ? "Некорректный пароль" : getErrorMessage(code, password);
     }
 
     public static String getMailErrorMessage(String mail) {
-        if (mail == null || mail.trim().isEmpty()) {
-            return "Email не может быть пустым";
+        byte code = mailError(mail);
+        return code == BatchValidationResult.OK ? "Некорректный email" : getErrorMessage(code, mail);
+    }
+
+    public static BatchValidationResult validateBatch(String[] names, String[] passwords, String[] mails) {
+        return validateBatch(names, passwords, mails, names.length, false);
+    }
+
+    // Проверяются строки [0, size); массивы могут быть длиннее (переиспользуемые буферы загрузчика)
+    public static BatchValidationResult validateBatch(String[] names, String[] passwords, String[] mails,
+                                                      int size, boolean parallel) {
+        return validateBatch(names, passwords, mails, size, parallel, null);
+    }
+
+    // cache == null — проверка без кэша
+    public static BatchValidationResult validateBatch(String[] names, String[] passwords, String[] mails,
+                                                      int size, boolean parallel, ValidationCache cache) {
+        return validateBatch(size, i -> names[i], i -> passwords[i], i -> mails[i], parallel, cache);
+    }
+
+    // Колонки задаются функциями номер строки → значение, например i -> users.get(i).getName().
+    // На быстром пути сообщения не создаются: результат хранит только код ошибки на строку.
+    public static BatchValidationResult validateBatch(int size, IntFunction<String> names,
+                                                      IntFunction<String> passwords, IntFunction<String> mails,
+                                                      boolean parallel) {
+        return validateBatch(size, names, passwords, mails, parallel, null);
+    }
+
+    public static BatchValidationResult validateBatch(int size, IntFunction<String> names,
+                                                      IntFunction<String> passwords, IntFunction<String> mails,
+                                                      boolean parallel, ValidationCache cache) {
+        byte[] codes = new byte[size];
+        long[] words = new long[(size + 63) / 64];
+        // Проверенные значения копируются в результат: User.fromBatch создает пользователя из копии
+        BatchValidationResult result = new BatchValidationResult(words, codes, new String[size], new String[size],
+                new String[size]);
+        if (parallel && size > PARALLEL_CHUNK_SIZE) {
+            IntStream.range(0, (size + PARALLEL_CHUNK_SIZE - 1) / PARALLEL_CHUNK_SIZE).parallel()
+                    .forEach(chunk -> validateRange(chunk * PARALLEL_CHUNK_SIZE,
+                            Math.min(size, (chunk + 1) * PARALLEL_CHUNK_SIZE), names, passwords, mails, cache,
+                            result));
+        } else {
+            validateRange(0, size, names, passwords, mails, cache, result);
         }
-        if (!EMAIL_PATTERN.matcher(mail).matches()) {
-            return "Email имеет некорректный формат: " + mail;
+        return result;
+    }
+
+    // Код первой ошибки строки в порядке name, password, mail — как в UserBuilder
+    public static byte errorCode(String name, String password, String mail) {
+        byte code = nameError(name);
+        if (code == BatchValidationResult.OK) code = passwordError(password);
+        if (code == BatchValidationResult.OK) code = mailError(mail);
+        return code;
+    }
+
+    private static void validateRange(int from, int to, IntFunction<String> names, IntFunction<String> passwords,
+                                      IntFunction<String> mails, ValidationCache cache, BatchValidationResult result) {
+        for (int i = from; i < to; i++) {
+            String name = names.apply(i);
+            String password = passwords.apply(i);
+            String mail = mails.apply(i);
+            result.set(i, name, password, mail,
+                    cache == null ? errorCode(name, password, mail) : cache.errorCode(name, password, mail));
         }
-        if (mail.length() > MAX_MAIL_LENGTH) {
-            return String.format("Email не должен превышать %d символов", MAX_MAIL_LENGTH);
+    }
+
+    static byte nameError(String name) {
+        if (isBlank(name)) return BatchValidationResult.NAME_EMPTY;
+        if (name.length() < MIN_NAME_LENGTH) return BatchValidationResult.NAME_TOO_SHORT;
+        if (name.length() > MAX_NAME_LENGTH) return BatchValidationResult.NAME_TOO_LONG;
+        return BatchValidationResult.OK;
+    }
+
+    static byte passwordError(String password) {
+        if (isBlank(password)) return BatchValidationResult.PASSWORD_EMPTY;
+        if (password.length() < MIN_PASSWORD_LENGTH) return BatchValidationResult.PASSWORD_TOO_SHORT;
+        if (password.length() > MAX_PASSWORD_LENGTH) return BatchValidationResult.PASSWORD_TOO_LONG;
+        return BatchValidationResult.OK;
+    }
+
+    static byte mailError(String mail) {
+        if (isBlank(mail)) return BatchValidationResult.MAIL_EMPTY;
+        if (!EmailValidator.matches(mail)) return BatchValidationResult.MAIL_FORMAT;
+        if (mail.length() > MAX_MAIL_LENGTH) return BatchValidationResult.MAIL_TOO_LONG;
+        return BatchValidationResult.OK;
+    }
+
+    // Текст ошибки по коду пакетной проверки; value — значение поля с ошибкой
+    public static String getErrorMessage(byte code, String value) {
+        switch (code) {
+            case BatchValidationResult.NAME_EMPTY:
+                return "Имя пользователя не может быть пустым";
+            case BatchValidationResult.NAME_TOO_SHORT:
+                return String.format("Имя пользователя должно содержать минимум %d символа", MIN_NAME_LENGTH);
+            case BatchValidationResult.NAME_TOO_LONG:
+                return String.format("Имя пользователя не должно превышать %d символов", MAX_NAME_LENGTH);
+            case BatchValidationResult.PASSWORD_EMPTY:
+                return "Пароль не может быть пустым";
+            case BatchValidationResult.PASSWORD_TOO_SHORT:
+                return String.format("Пароль должен содержать минимум %d символов", MIN_PASSWORD_LENGTH);
+            case BatchValidationResult.PASSWORD_TOO_LONG:
+                return String.format("Пароль не должен превышать %d символов", MAX_PASSWORD_LENGTH);
+            case BatchValidationResult.MAIL_EMPTY:
+                return "Email не может быть пустым";
+            case BatchValidationResult.MAIL_FORMAT:
+                return "Email имеет некорректный формат: " + value;
+            case BatchValidationResult.MAIL_TOO_LONG:
+                return String.format("Email не должен превышать %d символов", MAX_MAIL_LENGTH);
+            default:
+                return "Некорректное значение: " + value;
+        }
+    }
+
+    // То же, что value == null || value.trim().isEmpty(), без создания строки
+    private static boolean isBlank(String value) {
+        if (value == null) return true;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') return false;
         }
-        return "Некорректный email";
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,154 @@
+package Client.service.validation;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Потокобезопасный кэш проверки повторяющихся имен и доменов почты
+public final class ValidationCache {
+
+    public static final int DEFAULT_CAPACITY = 64 * 1024;
+
+    private final BoundedCache<Byte> names;
+    private final BoundedCache<Boolean> domains;
+
+    public ValidationCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // capacity — примерное число значений каждого вида, которое держит кэш
+    public ValidationCache(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Емкость кэша должна быть не меньше 2: " + capacity);
+        }
+        this.names = new BoundedCache<>(capacity);
+        this.domains = new BoundedCache<>(capacity);
+    }
+
+    public boolean isValidName(String name) {
+        return nameError(name) == BatchValidationResult.OK;
+    }
+
+    public boolean isValidMail(String mail) {
+        return mail != null && mail.length() <= UserValidator.MAX_MAIL_LENGTH && matches(mail);
+    }
+
+    public boolean isValidUser(String name, String password, String mail) {
+        return errorCode(name, password, mail) == BatchValidationResult.OK;
+    }
+
+    // Тот же код, что UserValidator.errorCode
+    public byte errorCode(String name, String password, String mail) {
+        byte code = nameError(name);
+        if (code == BatchValidationResult.OK) code = UserValidator.passwordError(password);
+        if (code == BatchValidationResult.OK) code = mailError(mail);
+        return code;
+    }
+
+    byte nameError(String name) {
+        if (name == null) {
+            return BatchValidationResult.NAME_EMPTY;
+        }
+        // Заведомо невалидные длинные значения не кэшируются, иначе они вытесняли бы повторяющиеся имена
+        if (name.length() > UserValidator.MAX_NAME_LENGTH) {
+            return UserValidator.nameError(name);
+        }
+        return names.get(name, UserValidator::nameError);
+    }
+
+    byte mailError(String mail) {
+        if (mail == null) {
+            return BatchValidationResult.MAIL_EMPTY;
+        }
+        if (!matches(mail)) {
+            // Пустые и пробельные строки автомат не принимает, код уточняет общий валидатор
+            return UserValidator.mailError(mail);
+        }
+        return mail.length() > UserValidator.MAX_MAIL_LENGTH ? BatchValidationResult.MAIL_TOO_LONG : BatchValidationResult.OK;
+    }
+
+    private boolean matches(String mail) {
+        int at = mail.indexOf('@');
+        if (at <= 0 || !EmailValidator.matchesLocal(mail, 0, at)) {
+            return false;
+        }
+        if (mail.length() > UserValidator.MAX_MAIL_LENGTH) {
+            return EmailValidator.matchesDomain(mail, at + 1, mail.length());
+        }
+        return domains.get(mail.substring(at + 1), domain -> EmailValidator.matchesDomain(domain, 0, domain.length()));
+    }
+
+    public long getHits() {
+        return names.hits.sum() + domains.hits.sum();
+    }
+
+    public long getMisses() {
+        return names.misses.sum() + domains.misses.sum();
+    }
+
+    public double getHitRate() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public void clear() {
+        names.clear();
+        domains.clear();
+    }
+
+    public void print() {
+        System.out.println("Кэш проверки:");
+        System.out.printf("  - Имена: попаданий %d, промахов %d%n", names.hits.sum(), names.misses.sum());
+        System.out.printf("  - Домены: попаданий %d, промахов %d%n", domains.hits.sum(), domains.misses.sum());
+        System.out.printf("  - Доля попаданий: %.1f%%%n", getHitRate() * 100);
+    }
+
+    // Два поколения вместо точного LRU: новые значения попадают в current, найденные в previous переносятся в current.
+    // Когда current заполнен наполовину емкости, он становится previous, а старое previous отбрасывается целиком.
+    // Гонка при смене поколений может потерять запись, но не исказить результат: значение всегда вычисляется заново.
+    private static final class BoundedCache<V> {
+        private final int generationSize;
+        private volatile ConcurrentHashMap<String, V> current = new ConcurrentHashMap<>();
+        private volatile ConcurrentHashMap<String, V> previous = new ConcurrentHashMap<>();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        private BoundedCache(int capacity) {
+            this.generationSize = capacity / 2;
+        }
+
+        private V get(String key, Function<String, V> compute) {
+            ConcurrentHashMap<String, V> young = current;
+            V value = young.get(key);
+            if (value != null) {
+                hits.increment();
+                return value;
+            }
+            value = previous.get(key);
+            if (value != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+                value = compute.apply(key);
+            }
+            young.put(key, value);
+            if (young.size() >= generationSize) {
+                rotate(young);
+            }
+            return value;
+        }
+
+        private synchronized void rotate(ConcurrentHashMap<String, V> full) {
+            if (current == full) {
+                previous = full;
+                current = new ConcurrentHashMap<>();
+            }
+        }
+
+        private synchronized void clear() {
+            current = new ConcurrentHashMap<>();
+            previous = new ConcurrentHashMap<>();
+        }
+    }
+}
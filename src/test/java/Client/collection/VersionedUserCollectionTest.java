@@ -0,0 +1,71 @@
+package Client.collection;
+
+import Client.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты класса VersionedUserCollection")
+class VersionedUserCollectionTest {
+
+    private static final User ANNA = User.builder().name("Анна").password("anna123").mail("anna@test.com").build();
+    private static final User OLGA = User.builder().name("Ольга").password("olga123").mail("olga@test.com").build();
+
+    @Test
+    @DisplayName("Публикация увеличивает версию, а старый снимок не меняется")
+    void testPublishKeepsPinnedSnapshot() {
+        VersionedUserCollection store = new VersionedUserCollection();
+        store.publish(new CustomUserCollection(List.of(ANNA)));
+
+        VersionedUserCollection.Snapshot pinned = store.snapshot();
+        store.publish(new CustomUserCollection(List.of(ANNA, OLGA)));
+
+        assertEquals(1, pinned.getVersion());
+        assertEquals(1, pinned.getUsers().size());
+        assertEquals(2, store.version());
+        assertEquals(2, store.current().size());
+    }
+
+    @Test
+    @DisplayName("Снимок нельзя изменить, а исходная коллекция не влияет на него")
+    void testSnapshotIsImmutable() {
+        VersionedUserCollection store = new VersionedUserCollection();
+        CustomUserCollection source = new CustomUserCollection(List.of(ANNA));
+        store.publish(source);
+        source.add(OLGA);
+
+        assertEquals(1, store.current().size());
+        assertThrows(UnsupportedOperationException.class, () -> store.current().add(OLGA));
+    }
+
+    @Test
+    @DisplayName("publishIfVersion отклоняет устаревшую версию")
+    void testPublishIfVersionRejectsStaleVersion() {
+        VersionedUserCollection store = new VersionedUserCollection();
+        long seen = store.version();
+        store.publish(new CustomUserCollection(List.of(ANNA)));
+
+        assertFalse(store.publishIfVersion(seen, new CustomUserCollection(List.of(OLGA))));
+        assertTrue(store.publishIfVersion(store.version(), new CustomUserCollection(List.of(OLGA))));
+        assertEquals(OLGA, store.current().get(0));
+    }
+
+    @Test
+    @DisplayName("update применяет изменение к текущему снимку")
+    void testUpdateAppliesToCurrentSnapshot() {
+        VersionedUserCollection store = new VersionedUserCollection();
+        store.publish(new CustomUserCollection(List.of(ANNA)));
+
+        store.update(users -> {
+            CustomUserCollection copy = new CustomUserCollection(users.toList());
+            copy.add(OLGA);
+            return copy;
+        });
+
+        assertEquals(2, store.current().size());
+        assertEquals(2, store.version());
+    }
+}
@@ -0,0 +1,127 @@
+package Client.service.file;
+
+import Client.collection.CustomUserCollection;
+import Client.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты бинарного формата файла пользователей")
+class BinaryUserFormatTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final FileWriterService writer = new FileWriterService();
+    private final FileReaderService reader = new FileReaderService();
+
+    @Test
+    @DisplayName("Запись и чтение сохраняют всех пользователей и их порядок")
+    void testRoundTrip() throws IOException {
+        List<User> users = users(5000);
+        String path = tempDir.resolve("users.bin").toString();
+
+        writer.writeBinary(users, path, false);
+        CustomUserCollection loaded = reader.readBinaryFile(path);
+
+        assertEquals(users, loaded.toList());
+    }
+
+    @Test
+    @DisplayName("Индекс позволяет прочитать запись без чтения предыдущих")
+    void testReadRecordByIndex() throws IOException {
+        List<User> users = users(100);
+        String path = tempDir.resolve("indexed.bin").toString();
+
+        writer.writeBinary(users, path, true);
+
+        assertEquals(users.get(0), reader.readBinaryRecord(path, 0));
+        assertEquals(users.get(57), reader.readBinaryRecord(path, 57));
+        assertEquals(users.get(99), reader.readBinaryRecord(path, 99));
+        assertEquals(users, reader.readBinaryFile(path).toList());
+        assertThrows(IndexOutOfBoundsException.class, () -> reader.readBinaryRecord(path, 100));
+    }
+
+    @Test
+    @DisplayName("Без индекса чтение по номеру записи недоступно")
+    void testReadRecordWithoutIndexFails() throws IOException {
+        String path = tempDir.resolve("plain.bin").toString();
+        writer.writeBinary(users(3), path, false);
+
+        assertThrows(IOException.class, () -> reader.readBinaryRecord(path, 1));
+    }
+
+    @Test
+    @DisplayName("Текстовый файл не принимается как бинарный")
+    void testRejectsTextFile() throws IOException {
+        Path path = tempDir.resolve("users.txt");
+        Files.writeString(path, "Анна;anna1234;anna@test.com\n");
+
+        assertThrows(IOException.class, () -> reader.readBinaryFile(path.toString()));
+    }
+
+    @Test
+    @DisplayName("Число записей в заголовке сверяется с размером файла")
+    void testRejectsCountBeyondFileSize() throws IOException {
+        Path path = tempDir.resolve("broken.bin");
+        writer.writeBinary(users(3), path.toString(), false);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            ByteBuffer count = ByteBuffer.allocate(Long.BYTES).putLong(0, Integer.MAX_VALUE);
+            channel.write(count, 8);
+        }
+
+        assertThrows(IOException.class, () -> reader.readBinaryFile(path.toString()));
+    }
+
+    @Test
+    @DisplayName("Невалидная запись пропускается и попадает в отчет")
+    void testInvalidRecordSkipped() throws IOException {
+        List<User> users = users(2);
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        BinaryUserFormat.writeHeader(buffer, 3, 0);
+        writeRecord(buffer, users.get(0).getName(), users.get(0).getPassword(), users.get(0).getMail());
+        writeRecord(buffer, "Анна", "123", "anna@test.com");
+        writeRecord(buffer, users.get(1).getName(), users.get(1).getPassword(), users.get(1).getMail());
+        buffer.flip();
+        Path path = tempDir.resolve("invalid.bin");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.write(buffer);
+        }
+
+        assertEquals(users, reader.readBinaryFile(path.toString()).toList());
+        LoadReport report = reader.getLastReport();
+        assertEquals(3, report.getLines());
+        assertEquals(1, report.getErrors(LoadReport.Category.PASSWORD));
+        assertEquals(2, report.lineNumberOf(report.getExamples().get(0)));
+    }
+
+    private static void writeRecord(ByteBuffer buffer, String name, String password, String mail) {
+        BinaryUserFormat.writeRecord(buffer, name.getBytes(StandardCharsets.UTF_8),
+                password.getBytes(StandardCharsets.UTF_8), mail.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<User> users(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(User.builder()
+                    .name("Пользователь " + i)
+                    .password("password" + i)
+                    .mail("user" + i + "@test.com")
+                    .build());
+        }
+        return users;
+    }
+}
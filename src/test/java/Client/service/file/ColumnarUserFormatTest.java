@@ -0,0 +1,128 @@
+package Client.service.file;
+
+import Client.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты колоночного формата")
+class ColumnarUserFormatTest {
+
+    private static final String[] NAMES = {"Анна", "Иван", "Мария", "Петр", "Ольга"};
+    private static final String[] DOMAINS = {"gmail.com", "mail.ru", "yandex.ru"};
+
+    @TempDir
+    Path tempDir;
+
+    private final FileWriterService writer = new FileWriterService();
+    private final FileReaderService reader = new FileReaderService();
+
+    @Test
+    @DisplayName("Запись и чтение всех колонок восстанавливают пользователей")
+    void testRoundTrip() throws IOException {
+        List<User> users = users(1000);
+        String path = tempDir.resolve("users.col").toString();
+
+        writer.writeColumnar(users, path);
+
+        assertTrue(ColumnarUserFormat.isColumnar(Path.of(path)));
+        assertEquals(users, reader.readColumnar(path).toList());
+    }
+
+    @Test
+    @DisplayName("Одна колонка читается отдельно, подсчет по домену совпадает с группировкой")
+    void testSingleColumn() throws IOException {
+        List<User> users = users(3000);
+        String path = tempDir.resolve("users.col").toString();
+        writer.writeColumnar(users, path);
+
+        String[] passwords = reader.readColumn(path, ColumnarUserFormat.Column.PASSWORD);
+        assertEquals(users.get(1234).getPassword(), passwords[1234]);
+
+        Map<String, Long> expected = users.stream().collect(Collectors.groupingBy(
+                user -> user.getMail().substring(user.getMail().indexOf('@') + 1), Collectors.counting()));
+        assertEquals(expected, reader.countByColumn(path, ColumnarUserFormat.Column.MAIL_DOMAIN));
+        assertEquals(Long.valueOf(600), reader.countByColumn(path, ColumnarUserFormat.Column.NAME).get("Анна"));
+    }
+
+    @Test
+    @DisplayName("Словарные колонки делают файл меньше текстового")
+    void testSmallerThanText() throws IOException {
+        List<User> users = users(5000);
+        Path columnar = tempDir.resolve("users.col");
+        Path text = tempDir.resolve("users.txt");
+
+        writer.writeColumnar(users, columnar.toString());
+        writer.writeToFile(users, text.toString());
+
+        assertTrue(Files.size(columnar) < Files.size(text) * 3 / 4);
+    }
+
+    @Test
+    @DisplayName("Текстовый и поврежденный файлы не читаются как колоночные")
+    void testRejectsOtherFiles() throws IOException {
+        Path text = tempDir.resolve("users.txt");
+        writer.writeToFile(users(10), text.toString());
+        assertFalse(ColumnarUserFormat.isColumnar(text));
+        assertThrows(IOException.class, () -> reader.readColumnar(text.toString()));
+
+        Path columnar = tempDir.resolve("users.col");
+        writer.writeColumnar(users(10), columnar.toString());
+        byte[] bytes = Files.readAllBytes(columnar);
+        Files.write(columnar, Arrays.copyOf(bytes, bytes.length - 5));
+        assertThrows(IOException.class, () -> reader.readColumnar(columnar.toString()));
+    }
+
+    @Test
+    @DisplayName("Число записей в заголовке сверяется с длиной колонок")
+    void testRejectsCountBeyondColumns() throws IOException {
+        Path columnar = tempDir.resolve("users.col");
+        writer.writeColumnar(users(10), columnar.toString());
+        byte[] bytes = Files.readAllBytes(columnar);
+        ByteBuffer.wrap(bytes).putLong(8, Integer.MAX_VALUE);
+        Files.write(columnar, bytes);
+
+        assertThrows(IOException.class, () -> reader.readColumnar(columnar.toString()));
+        assertThrows(IOException.class, () -> reader.readColumn(columnar.toString(), ColumnarUserFormat.Column.PASSWORD));
+    }
+
+    @Test
+    @DisplayName("Перезапись заменяет файл целиком и не оставляет временных файлов")
+    void testOverwriteReplacesFile() throws IOException {
+        String path = tempDir.resolve("users.col").toString();
+        writer.writeColumnar(users(1000), path);
+        List<User> users = users(10);
+
+        writer.writeColumnar(users, path);
+
+        assertEquals(users, reader.readColumnar(path).toList());
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(List.of("users.col"), files.map(file -> file.getFileName().toString()).toList());
+        }
+    }
+
+    private static List<User> users(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(User.builder()
+                    .name(NAMES[i % NAMES.length])
+                    .password("password" + i)
+                    .mail("user" + i + "@" + DOMAINS[i % DOMAINS.length])
+                    .build());
+        }
+        return users;
+    }
+}
@@ -0,0 +1,166 @@
+package Client.service.file;
+
+import Client.collection.CustomUserCollection;
+import Client.collection.VersionedUserCollection;
+import Client.model.User;
+import Client.service.filler.FileFiller;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты слежения за файлом")
+class FileFollowerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<User> received = new CopyOnWriteArrayList<>();
+
+    private final FileFollower.Sink sink = new FileFollower.Sink() {
+        @Override
+        public void append(List<User> users) {
+            received.addAll(users);
+        }
+
+        @Override
+        public void replace(List<User> users) {
+            received.clear();
+            received.addAll(users);
+        }
+    };
+
+    @Test
+    @DisplayName("Разбираются только дописанные строки, незавершенная строка ждет перевода строки")
+    void testReadsOnlyAppendedLines() throws IOException {
+        Path path = tempDir.resolve("users.txt");
+        Files.writeString(path, "# заголовок\nАнна;anna1234;anna@test.com\n", StandardCharsets.UTF_8);
+        FileFollower follower = new FileFollower(path, sink);
+
+        assertEquals(1, follower.poll());
+        assertEquals(0, follower.poll());
+
+        append(path, "Борис;boris123;boris@test.com\nВера;vera");
+        assertEquals(1, follower.poll());
+        append(path, "1234;vera@test.com\n");
+        assertEquals(1, follower.poll());
+
+        assertEquals(List.of("Анна", "Борис", "Вера"), received.stream().map(User::getName).toList());
+        assertEquals(Files.size(path), follower.getOffset());
+    }
+
+    @Test
+    @DisplayName("После усечения и ротации содержимое файла заменяет прочитанное ранее")
+    void testTruncationAndRotation() throws IOException {
+        Path path = tempDir.resolve("users.txt");
+        Files.writeString(path, "Анна;anna1234;anna@test.com\nБорис;boris123;boris@test.com\n", StandardCharsets.UTF_8);
+        FileFollower follower = new FileFollower(path, sink);
+        follower.poll();
+
+        Files.writeString(path, "Вера;vera1234;vera@test.com\n", StandardCharsets.UTF_8);
+        assertEquals(1, follower.poll());
+        assertEquals(List.of("Вера"), received.stream().map(User::getName).toList());
+
+        Path rotated = tempDir.resolve("next.txt");
+        Files.writeString(rotated, "Глеб;gleb1234;gleb@test.com\nДина;dina1234;dina@test.com\n", StandardCharsets.UTF_8);
+        Files.move(rotated, path, StandardCopyOption.REPLACE_EXISTING);
+        assertEquals(2, follower.poll());
+
+        assertEquals(2, follower.getResetCount());
+        assertEquals(List.of("Глеб", "Дина"), received.stream().map(User::getName).toList());
+    }
+
+    @Test
+    @DisplayName("Компактация файла под слежением не дублирует пользователей")
+    void testCompactionKeepsCount() throws IOException {
+        Path path = tempDir.resolve("users.txt");
+        new FileWriterService().writeToFile(users(100), path.toString());
+        VersionedUserCollection store = new VersionedUserCollection();
+        store.publish(new CustomUserCollection(users(3)));
+
+        try (FileFollower follower = new FileFiller().follow(path.toString(), store)) {
+            assertEquals(103, store.current().size());
+
+            new UserFileCompactor().compact(path.toString());
+            follower.poll();
+            assertEquals(1, follower.getResetCount());
+            assertEquals(103, store.current().size());
+
+            append(path, "Анна;anna1234;anna@test.com\n");
+            follower.poll();
+            assertEquals(104, store.current().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Замена содержимого файла убирает только записи слежения, а не опубликованное после его начала")
+    void testReplaceKeepsLaterPublications() throws IOException {
+        Path path = tempDir.resolve("users.txt");
+        Files.writeString(path, "Анна;anna1234;anna@test.com\n", StandardCharsets.UTF_8);
+        VersionedUserCollection store = new VersionedUserCollection();
+        store.publish(new CustomUserCollection(users(2)));
+
+        try (FileFollower follower = new FileFiller().follow(path.toString(), store)) {
+            // Во время слежения коллекция отсортирована в обратном порядке и дополнена
+            List<User> reordered = new ArrayList<>(store.current().toList());
+            Collections.reverse(reordered);
+            reordered.add(users(3).get(2));
+            store.publish(new CustomUserCollection(reordered));
+
+            Path rotated = tempDir.resolve("next.txt");
+            Files.writeString(rotated, "Вера;vera1234;vera@test.com\n", StandardCharsets.UTF_8);
+            Files.move(rotated, path, StandardCopyOption.REPLACE_EXISTING);
+            follower.poll();
+
+            assertEquals(1, follower.getResetCount());
+            assertEquals(List.of("Пользователь 1", "Пользователь 0", "Пользователь 2", "Вера"),
+                    store.current().stream().map(User::getName).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Фоновый поток подхватывает дописанные строки")
+    void testBackgroundFollow() throws Exception {
+        Path path = tempDir.resolve("users.txt");
+        Files.writeString(path, "", StandardCharsets.UTF_8);
+
+        try (FileFollower follower = new FileFollower(path, sink, 50)) {
+            follower.start();
+            append(path, "Анна;anna1234;anna@test.com\n");
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (received.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+        }
+        assertEquals(1, received.size());
+    }
+
+    private static void append(Path path, String text) throws IOException {
+        Files.writeString(path, text, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+
+    private static List<User> users(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(User.builder()
+                    .name("Пользователь " + i)
+                    .password("password" + i)
+                    .mail("user" + i + "@test.com")
+                    .build());
+        }
+        return users;
+    }
+}
@@ -0,0 +1,87 @@
+package Client.service.file;
+
+import Client.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты потокового чтения текстового файла")
+class FileReaderServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final FileReaderService reader = new FileReaderService();
+
+    @Test
+    @DisplayName("Заголовок, комментарии и пустые строки пропускаются")
+    void testSkipsHeaderAndComments() throws IOException {
+        Path path = write(FileWriterService.FILE_HEADER + "\n"
+                + "# 2024-01-01 10:00:00\n"
+                + "\n"
+                + "Анна;password1;anna@test.com\n"
+                + "   \n"
+                + "# комментарий\n"
+                + "Иван;password2;ivan@test.com\n");
+
+        assertEquals(List.of(user("Анна", "password1", "anna@test.com"), user("Иван", "password2", "ivan@test.com")),
+                reader.readFromFile(path.toString()));
+        assertEquals(0, reader.getLastReport().getInvalid());
+    }
+
+    @Test
+    @DisplayName("Последняя строка без перевода строки читается")
+    void testLastLineWithoutNewline() throws IOException {
+        Path path = write("Анна;password1;anna@test.com\nИван;password2;ivan@test.com");
+
+        assertEquals(List.of(user("Анна", "password1", "anna@test.com"), user("Иван", "password2", "ivan@test.com")),
+                reader.readFromFile(path.toString()));
+    }
+
+    @Test
+    @DisplayName("Невалидные строки считаются в отчете, валидные передаются в consumer")
+    void testInvalidLinesCounted() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            // Пакеты проверки по 1024 строки: невалидные строки попадают в разные пакеты
+            if (i % 500 == 7) {
+                content.append("Пользователь ").append(i).append(";123;bad-mail\n");
+            } else {
+                content.append("Пользователь ").append(i).append(";password").append(i)
+                        .append(";user").append(i).append("@test.com\n");
+            }
+        }
+        content.append("без разделителей\n");
+        Path path = write(content.toString());
+
+        List<User> users = new ArrayList<>();
+        assertEquals(2994, reader.readFromFile(path.toString(), users::add));
+        assertEquals(2994, users.size());
+
+        LoadReport report = reader.getLastReport();
+        assertEquals(3001, report.getLines());
+        assertEquals(2994, report.getValid());
+        assertEquals(7, report.getInvalid());
+        assertEquals(6, report.getErrors(LoadReport.Category.PASSWORD));
+        assertEquals(1, report.getErrors(LoadReport.Category.FORMAT));
+    }
+
+    private Path write(String content) throws IOException {
+        Path path = tempDir.resolve("users.txt");
+        Files.writeString(path, content, StandardCharsets.UTF_8);
+        return path;
+    }
+
+    private static User user(String name, String password, String mail) {
+        return User.builder().name(name).password(password).mail(mail).build();
+    }
+}
@@ -0,0 +1,110 @@
+package Client.service.file;
+
+import Client.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты асинхронного сохранения")
+class FileSaverServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final FileSaverService saver = new FileSaverService();
+
+    @AfterEach
+    void tearDown() {
+        saver.shutdown();
+    }
+
+    @Test
+    @DisplayName("Все асинхронные дописывания попадают в файл в порядке постановки")
+    void testAsyncAppendKeepsOrder() throws Exception {
+        Path path = tempDir.resolve("users.txt");
+        List<CompletableFuture<FileSaverService.SaveResult>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            futures.add(saver.saveAsync(List.of(user(i)), path.toString(),
+                    FileSaverService.SaveMode.APPEND, i % 25 == 0));
+        }
+        for (CompletableFuture<FileSaverService.SaveResult> future : futures) {
+            assertTrue(future.get().getBytesWritten() > 0);
+        }
+
+        List<String> lines = Files.readAllLines(path);
+        assertEquals(101, lines.size());
+        assertEquals(FileWriterService.FILE_HEADER, lines.get(0));
+        for (int i = 0; i < 100; i++) {
+            assertEquals("Пользователь " + i + ";password" + i + ";user" + i + "@test.com", lines.get(i + 1));
+        }
+    }
+
+    @Test
+    @DisplayName("Невалидный запрос в группе дописываний не мешает остальным")
+    void testInvalidRequestDoesNotFailGroup() throws Exception {
+        Path path = tempDir.resolve("users.txt");
+        // Большая запись занимает поток-писатель, пока дописывания копятся в очереди и объединяются в группу
+        saver.saveAsync(users(200_000), tempDir.resolve("big.txt").toString(),
+                FileSaverService.SaveMode.OVERWRITE);
+
+        CompletableFuture<FileSaverService.SaveResult> first = saver.saveAsync(List.of(user(1)),
+                path.toString(), FileSaverService.SaveMode.APPEND);
+        CompletableFuture<FileSaverService.SaveResult> invalid = saver.saveAsync(
+                Arrays.asList(user(2), null), path.toString(), FileSaverService.SaveMode.APPEND);
+        CompletableFuture<FileSaverService.SaveResult> second = saver.saveAsync(List.of(user(3)),
+                path.toString(), FileSaverService.SaveMode.APPEND);
+
+        assertThrows(ExecutionException.class, invalid::get);
+        assertTrue(first.get().getBytesWritten() > 0);
+        assertTrue(second.get().getBytesWritten() > 0);
+        assertEquals(List.of(user(1), user(3)), new FileReaderService().readFromFile(path.toString()));
+    }
+
+    @Test
+    @DisplayName("Ошибка записи возвращается через future")
+    void testWriteErrorCompletesExceptionally() {
+        // Путь указывает на каталог, поэтому открыть его как файл не получится
+        CompletableFuture<FileSaverService.SaveResult> future = saver.saveAsync(List.of(user(1)),
+                tempDir.toString(), FileSaverService.SaveMode.OVERWRITE);
+
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertTrue(e.getCause() instanceof IOException);
+    }
+
+    @Test
+    @DisplayName("После остановки новые запросы не принимаются")
+    void testSaveAfterShutdownFails() {
+        saver.shutdown();
+        assertThrows(IllegalStateException.class, () -> saver.saveAsync(List.of(user(1)),
+                tempDir.resolve("late.txt").toString(), FileSaverService.SaveMode.APPEND));
+    }
+
+    private static User user(int i) {
+        return User.builder()
+                .name("Пользователь " + i)
+                .password("password" + i)
+                .mail("user" + i + "@test.com")
+                .build();
+    }
+
+    private static List<User> users(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(user(i));
+        }
+        return users;
+    }
+}
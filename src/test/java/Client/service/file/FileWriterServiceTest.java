@@ -0,0 +1,98 @@
+package Client.service.file;
+
+import Client.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@DisplayName("Тесты записи текстового файла")
+class FileWriterServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Параллельная запись дает тот же файл, что и последовательная")
+    void testParallelWriteMatchesSequential() throws IOException {
+        List<User> users = users(50_000);
+        Path sequential = tempDir.resolve("sequential.txt");
+        Path parallel = tempDir.resolve("parallel.txt");
+        Path trusted = tempDir.resolve("trusted.txt");
+
+        new FileWriterService().writeToFile(users, sequential.toString());
+        new FileWriterService(4).writeToFile(users, parallel.toString());
+        new FileWriterService(4).writeToFile(users, trusted.toString(), true);
+
+        assertArrayEquals(Files.readAllBytes(sequential), Files.readAllBytes(parallel));
+        assertArrayEquals(Files.readAllBytes(sequential), Files.readAllBytes(trusted));
+        assertEquals(users, new FileReaderService().readFromFile(parallel.toString()));
+    }
+
+    @Test
+    @DisplayName("Параллельное дописывание в сжатый файл сохраняет порядок")
+    void testParallelAppendGzip() throws IOException {
+        List<User> first = users(20_000);
+        List<User> second = users(40_000).subList(20_000, 40_000);
+        String path = tempDir.resolve("users.txt.gz").toString();
+
+        FileWriterService writer = new FileWriterService(3);
+        writer.appendToFile(first, path);
+        writer.appendToFile(second, path, true);
+
+        assertEquals(users(40_000), new FileReaderService().readFromFile(path));
+    }
+
+    @Test
+    @DisplayName("Перезапись не оставляет временных файлов")
+    void testOverwriteLeavesNoTempFiles() throws IOException {
+        Path path = tempDir.resolve("users.txt");
+        FileWriterService writer = new FileWriterService(2);
+        writer.writeToFile(users(10), path.toString());
+        writer.writeToFile(users(5), path.toString());
+
+        try (var files = Files.list(tempDir)) {
+            assertEquals(List.of(path), files.toList());
+        }
+        assertEquals(users(5), new FileReaderService().readFromFile(path.toString()));
+    }
+
+    @Test
+    @DisplayName("Перезапись сохраняет права исходного файла")
+    void testOverwriteKeepsPermissions() throws IOException {
+        Path path = tempDir.resolve("users.txt");
+        FileWriterService writer = new FileWriterService();
+        writer.writeToFile(users(10), path.toString());
+        assumeTrue(Files.getFileAttributeView(path, PosixFileAttributeView.class) != null);
+
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r-----");
+        Files.setPosixFilePermissions(path, permissions);
+        writer.writeToFile(users(5), path.toString());
+
+        assertEquals(permissions, Files.getPosixFilePermissions(path));
+    }
+
+    private static List<User> users(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(User.builder()
+                    .name("Пользователь " + i)
+                    .password("password" + i)
+                    .mail("user" + i + "@test.com")
+                    .build());
+        }
+        return users;
+    }
+}
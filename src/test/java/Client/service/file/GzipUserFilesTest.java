@@ -0,0 +1,110 @@
+package Client.service.file;
+
+import Client.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты сжатых файлов пользователей")
+class GzipUserFilesTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final FileReaderService reader = new FileReaderService();
+
+    @Test
+    @DisplayName("Сжатый файл читается потоково и совпадает с записанным")
+    void testRoundTrip() throws IOException {
+        List<User> users = users(3000);
+        Path path = tempDir.resolve("users.txt.gz");
+
+        new FileWriterService().writeToFile(users, path.toString());
+
+        assertEquals(users, reader.readFromFile(path.toString()));
+        assertTrue(Files.size(path) < users.size() * 20L);
+    }
+
+    @Test
+    @DisplayName("Файл из нескольких gzip-членов делится между потоками загрузчика")
+    void testParallelLoadByMembers() throws IOException {
+        List<User> users = users(5000);
+        Path path = tempDir.resolve("members.gz");
+
+        // Маленький буфер дает много членов
+        try (UserFileWriter writer = UserFileWriter.open(path, false, 4096)) {
+            for (User user : users) {
+                writer.writeUser(user);
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] members = GzipUserFiles.memberOffsets(channel);
+            assertNotNull(members);
+            assertTrue(members.length > 10);
+        }
+        assertEquals(users, new MappedFileLoader(4).load(path.toString()));
+        assertEquals(users, reader.readFromFile(path.toString()));
+    }
+
+    @Test
+    @DisplayName("Обычный gzip без размеров членов загружается одним потоком")
+    void testPlainGzipFallsBackToSequential() throws IOException {
+        List<User> users = users(500);
+        Path path = tempDir.resolve("plain.gz");
+
+        try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(path))) {
+            for (User user : users) {
+                String line = user.getName() + ";" + user.getPassword() + ";" + user.getMail() + "\n";
+                output.write(line.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            assertNull(GzipUserFiles.memberOffsets(channel));
+        }
+        assertEquals(users, new MappedFileLoader(4).load(path.toString()));
+    }
+
+    @Test
+    @DisplayName("Дописывание в сжатый файл добавляет новый член")
+    void testAppend() throws IOException {
+        List<User> first = users(10);
+        List<User> second = users(20).subList(10, 20);
+        String path = tempDir.resolve("append.gz").toString();
+        FileWriterService writer = new FileWriterService();
+
+        writer.appendToFile(first, path);
+        writer.appendToFile(second, path);
+
+        List<User> expected = new ArrayList<>(first);
+        expected.addAll(second);
+        assertEquals(expected, reader.readFromFile(path));
+        assertEquals(expected, new MappedFileLoader(2).load(path));
+    }
+
+    private static List<User> users(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(User.builder()
+                    .name("Пользователь " + i)
+                    .password("password" + i)
+                    .mail("user" + i + "@test.com")
+                    .build());
+        }
+        return users;
+    }
+}
@@ -0,0 +1,107 @@
+package Client.service.file;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты отчета о загрузке")
+class LoadReportTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Параллельные потоки считают все ошибки, примеров не больше заданного числа")
+    void testConcurrentRecording() throws InterruptedException {
+        LoadReport report = new LoadReport(5);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int chunk = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 1; i <= 10_000; i++) {
+                    report.recordError(i % 2 == 0 ? LoadReport.Category.NAME : LoadReport.Category.MAIL,
+                            chunk, i, "bad;line;" + i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(20_000, report.getErrors(LoadReport.Category.NAME));
+        assertEquals(20_000, report.getErrors(LoadReport.Category.MAIL));
+        assertEquals(40_000, report.getInvalid());
+        assertEquals(5, report.getExamples().size());
+    }
+
+    @Test
+    @DisplayName("В отчет попадают первые ошибки файла, даже если поздние фрагменты записаны раньше")
+    void testFirstExamplesAcrossChunks() {
+        LoadReport report = new LoadReport(3);
+        for (int chunk = 2; chunk >= 0; chunk--) {
+            for (int line = 10; line >= 1; line--) {
+                report.recordError(LoadReport.Category.FORMAT, chunk, line, "chunk" + chunk + ";line" + line);
+            }
+        }
+        report.setChunkLineBases(new long[]{0, 100, 200});
+
+        assertEquals(List.of(1L, 2L, 3L), report.getExamples().stream().map(report::lineNumberOf).toList());
+        assertEquals(30, report.getInvalid());
+    }
+
+    @Test
+    @DisplayName("Ошибки разделяются по категориям, номера строк указывают на исходный файл")
+    void testCategoriesAndLineNumbers() throws IOException {
+        Path path = tempDir.resolve("dirty.txt");
+        StringBuilder content = new StringBuilder();
+        for (int i = 1; i <= 1000; i++) {
+            if (i == 100) {
+                content.append("без разделителей\n");
+            } else if (i == 500) {
+                content.append("Я;password500;user500@test.com\n");
+            } else if (i == 900) {
+                content.append("Пользователь; password900 ;not-a-mail\n");
+            } else {
+                content.append("Пользователь;password").append(i).append(";user").append(i).append("@test.com\n");
+            }
+        }
+        Files.writeString(path, content, StandardCharsets.UTF_8);
+
+        FileReaderService reader = new FileReaderService();
+        assertEquals(997, reader.readFromFile(path.toString(), user -> { }));
+        assertReport(reader.getLastReport());
+
+        MappedFileLoader loader = new MappedFileLoader(4);
+        assertEquals(997, loader.load(path.toString()).size());
+        assertReport(loader.getLastReport());
+    }
+
+    private static void assertReport(LoadReport report) {
+        assertEquals(1000, report.getLines());
+        assertEquals(997, report.getValid());
+        assertEquals(1, report.getErrors(LoadReport.Category.FORMAT));
+        assertEquals(1, report.getErrors(LoadReport.Category.NAME));
+        assertEquals(1, report.getErrors(LoadReport.Category.MAIL));
+        assertEquals(0, report.getErrors(LoadReport.Category.PASSWORD));
+
+        List<LoadReport.Example> examples = report.getExamples();
+        assertEquals(3, examples.size());
+        assertEquals(100, report.lineNumberOf(examples.get(0)));
+        assertEquals(500, report.lineNumberOf(examples.get(1)));
+        assertEquals(900, report.lineNumberOf(examples.get(2)));
+        assertEquals(LoadReport.Category.MAIL, examples.get(2).getCategory());
+        // В отчете строка из файла как есть, без обрезки полей
+        assertEquals("Пользователь; password900 ;not-a-mail", examples.get(2).getLine());
+    }
+}
@@ -0,0 +1,94 @@
+package Client.service.file;
+
+import Client.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты параллельной загрузки через mmap")
+class MappedFileLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Пустой файл дает пустой список")
+    void testEmptyFile() throws IOException {
+        Path path = write("empty.txt", "");
+
+        assertTrue(new MappedFileLoader(8).load(path.toString()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Файл меньше числа потоков загружается без ошибок")
+    void testFileSmallerThanThreadCount() throws IOException {
+        Path tiny = write("tiny.txt", "a\n\n");
+        assertTrue(new MappedFileLoader(8).load(tiny.toString()).isEmpty());
+
+        Path single = write("single.txt", "Анна;password1;anna@test.com");
+        assertEquals(List.of(user("Анна", "password1", "anna@test.com")),
+                new MappedFileLoader(64).load(single.toString()));
+    }
+
+    @Test
+    @DisplayName("Строка на границе фрагментов не разрезается")
+    void testLineAcrossChunkBoundary() throws IOException {
+        // Середина файла приходится на первую, длинную строку
+        String longName = "Д".repeat(40);
+        Path path = write("boundary.txt", longName + ";password1;anna@test.com\nИван;password2;ivan@test.com\n");
+        assertEquals(List.of(user(longName, "password1", "anna@test.com"), user("Иван", "password2", "ivan@test.com")),
+                new MappedFileLoader(2).load(path.toString()));
+
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            content.append("Пользователь ").append("x".repeat(i % 17)).append(i).append(";password").append(i)
+                    .append(";user").append(i).append("@test.com\n");
+        }
+        Path many = write("many.txt", content.toString());
+        assertEquals(new FileReaderService().readFromFile(many.toString()), new MappedFileLoader(7).load(many.toString()));
+    }
+
+    @Test
+    @DisplayName("Строки с CRLF читаются так же, как с LF")
+    void testCrlf() throws IOException {
+        Path path = write("crlf.txt", FileWriterService.FILE_HEADER + "\r\n"
+                + "Анна;password1;anna@test.com\r\nИван;password2;ivan@test.com\r\n");
+
+        MappedFileLoader loader = new MappedFileLoader(4);
+        assertEquals(List.of(user("Анна", "password1", "anna@test.com"), user("Иван", "password2", "ivan@test.com")),
+                loader.load(path.toString()));
+        assertEquals(0, loader.getInvalidCount());
+    }
+
+    @Test
+    @DisplayName("Сжатый файл загружается по gzip-членам в порядке записи")
+    void testGzip() throws IOException {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            users.add(user("Пользователь " + i, "password" + i, "user" + i + "@test.com"));
+        }
+        String path = tempDir.resolve("users.txt.gz").toString();
+        new FileWriterService().writeToFile(users, path);
+
+        assertEquals(users, new MappedFileLoader(4).load(path));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path path = tempDir.resolve(name);
+        Files.writeString(path, content, StandardCharsets.UTF_8);
+        return path;
+    }
+
+    private static User user(String name, String password, String mail) {
+        return User.builder().name(name).password(password).mail(mail).build();
+    }
+}
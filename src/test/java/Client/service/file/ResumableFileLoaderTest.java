@@ -0,0 +1,128 @@
+package Client.service.file;
+
+import Client.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты загрузки с контрольными точками")
+class ResumableFileLoaderTest {
+
+    private static final int COUNT = 20_000;
+
+    @TempDir
+    Path tempDir;
+
+    // Контрольная точка после каждого прочитанного буфера
+    private final ResumableFileLoader loader = new ResumableFileLoader(1, 0, 60_000);
+
+    @Test
+    @DisplayName("После сбоя загрузка продолжается с контрольной точки без потерь")
+    void testResumeAfterFailure() throws IOException {
+        String path = writeUsers("users.txt");
+        List<User> received = new ArrayList<>();
+
+        assertThrows(IllegalStateException.class, () -> loader.load(path, UserLineParser::toUser, user -> {
+            if (received.size() == COUNT / 2) {
+                throw new IllegalStateException("сбой импорта");
+            }
+            received.add(user);
+        }, ResumableFileLoader.Mode.CHECKPOINT));
+
+        ResumableFileLoader.Checkpoint checkpoint = loader.readCheckpoint(path);
+        assertNotNull(checkpoint);
+        assertTrue(checkpoint.getRecords() > 0 && checkpoint.getRecords() <= COUNT / 2);
+
+        // Записи после контрольной точки будут переданы повторно
+        List<User> imported = new ArrayList<>(received.subList(0, (int) checkpoint.getRecords()));
+        long resumed = loader.load(path, UserLineParser::toUser, imported::add, ResumableFileLoader.Mode.RESUME);
+
+        assertNotNull(loader.getResumedFrom());
+        assertEquals(COUNT - checkpoint.getRecords(), resumed);
+        assertEquals(users(), imported);
+        assertFalse(Files.exists(ResumableFileLoader.checkpointPath(path)));
+    }
+
+    @Test
+    @DisplayName("Ошибка записи контрольной точки не прерывает загрузку")
+    void testCheckpointWriteFailureIgnored() throws IOException {
+        String path = writeUsers("users.txt");
+        // На месте временного файла контрольной точки каталог, поэтому записать ее не получится
+        Files.createDirectory(Path.of(ResumableFileLoader.checkpointPath(path) + ".tmp"));
+        List<User> received = new ArrayList<>();
+
+        assertEquals(COUNT, loader.load(path, UserLineParser::toUser, received::add,
+                ResumableFileLoader.Mode.CHECKPOINT));
+        assertEquals(users(), received);
+        assertFalse(Files.exists(ResumableFileLoader.checkpointPath(path)));
+    }
+
+    @Test
+    @DisplayName("Если префикс файла изменился, загрузка начинается сначала")
+    void testChangedPrefixRestarts() throws IOException {
+        String path = writeUsers("users.txt");
+        List<User> received = new ArrayList<>();
+        assertThrows(IllegalStateException.class, () -> loader.load(path, UserLineParser::toUser, user -> {
+            if (received.size() == COUNT / 2) throw new IllegalStateException("сбой импорта");
+            received.add(user);
+        }, ResumableFileLoader.Mode.CHECKPOINT));
+
+        byte[] content = Files.readAllBytes(Path.of(path));
+        content[0] = (byte) 'X';
+        Files.write(Path.of(path), content);
+
+        List<User> imported = new ArrayList<>();
+        assertEquals(COUNT, loader.load(path, UserLineParser::toUser, imported::add, ResumableFileLoader.Mode.RESUME));
+        assertNull(loader.getResumedFrom());
+        assertEquals(COUNT, imported.size());
+    }
+
+    @Test
+    @DisplayName("Продолжение работает и для сжатых файлов")
+    void testResumeGzip() throws IOException {
+        String path = tempDir.resolve("users.txt.gz").toString();
+        new FileWriterService().writeToFile(users(), path);
+        List<User> received = new ArrayList<>();
+        assertThrows(IllegalStateException.class, () -> loader.load(path, UserLineParser::toUser, user -> {
+            if (received.size() == COUNT / 2) throw new IllegalStateException("сбой импорта");
+            received.add(user);
+        }, ResumableFileLoader.Mode.CHECKPOINT));
+
+        long done = loader.readCheckpoint(path).getRecords();
+        List<User> imported = new ArrayList<>(received.subList(0, (int) done));
+        loader.load(path, UserLineParser::toUser, imported::add, ResumableFileLoader.Mode.RESUME);
+        assertEquals(users(), imported);
+    }
+
+    private String writeUsers(String name) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (User user : users()) {
+            content.append(user.getName()).append(';').append(user.getPassword()).append(';')
+                    .append(user.getMail()).append('\n');
+        }
+        Path path = tempDir.resolve(name);
+        Files.writeString(path, content, StandardCharsets.UTF_8);
+        return path.toString();
+    }
+
+    private static List<User> users() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++) {
+            users.add(User.builder()
+                    .name("Пользователь " + i)
+                    .password("password" + i)
+                    .mail("user" + i + "@test.com")
+                    .build());
+        }
+        return users;
+    }
+}
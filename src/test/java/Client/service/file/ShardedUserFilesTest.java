@@ -0,0 +1,104 @@
+package Client.service.file;
+
+import Client.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты шардированного экспорта")
+class ShardedUserFilesTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ShardedUserFiles sharded = new ShardedUserFiles(4);
+
+    @Test
+    @DisplayName("Разбиение по диапазонам сохраняет порядок пользователей")
+    void testContiguousRoundTrip() throws IOException {
+        List<User> users = users(1001);
+        String base = tempDir.resolve("export.txt").toString();
+
+        ShardedUserFiles.Manifest manifest = sharded.write(users, base, 4, ShardedUserFiles.Partitioning.CONTIGUOUS, false);
+
+        assertEquals(4, manifest.getShardCount());
+        assertEquals(1001, manifest.getTotalRecords());
+        assertTrue(Files.exists(tempDir.resolve("export.txt.part-0003")));
+        assertEquals(users, sharded.read(base));
+    }
+
+    @Test
+    @DisplayName("Повторный экспорт с меньшим числом шардов удаляет лишние части")
+    void testFewerShardsRemovesStaleParts() throws IOException {
+        String base = tempDir.resolve("export.txt").toString();
+        sharded.write(users(100), base, 8, ShardedUserFiles.Partitioning.CONTIGUOUS, false);
+        sharded.write(users(50), base, 3, ShardedUserFiles.Partitioning.CONTIGUOUS, false);
+
+        try (var files = Files.list(tempDir)) {
+            assertEquals(4, files.count());
+        }
+        assertFalse(Files.exists(tempDir.resolve("export.txt.part-0003")));
+        assertEquals(users(50), sharded.read(base));
+    }
+
+    @Test
+    @DisplayName("Разбиение по хешу и сжатые шарды загружаются целиком")
+    void testHashGzipRoundTrip() throws IOException {
+        List<User> users = users(2000);
+        String base = tempDir.resolve("export.txt.gz").toString();
+
+        sharded.write(users, base, 3, ShardedUserFiles.Partitioning.HASH, false);
+
+        assertTrue(Files.exists(tempDir.resolve("export.txt.part-0002.gz")));
+        List<User> loaded = sharded.read(base);
+        assertEquals(users.size(), loaded.size());
+        assertEquals(new HashSet<>(users), new HashSet<>(loaded));
+    }
+
+    @Test
+    @DisplayName("Без манифеста или при несовпадении числа записей загрузка не выполняется")
+    void testIncompleteExportRejected() throws IOException {
+        String base = tempDir.resolve("export.txt").toString();
+        assertThrows(IOException.class, () -> sharded.read(base));
+
+        sharded.write(users(100), base, 2, ShardedUserFiles.Partitioning.CONTIGUOUS, false);
+        Files.writeString(Path.of(ShardedUserFiles.shardPath(base, 1)), "");
+        assertThrows(IOException.class, () -> sharded.read(base));
+    }
+
+    @Test
+    @DisplayName("Асинхронное сохранение в режиме SHARDED возвращает суммарный размер шардов")
+    void testAsyncShardedSave() throws Exception {
+        FileSaverService saver = new FileSaverService();
+        saver.setSharding(5, ShardedUserFiles.Partitioning.CONTIGUOUS);
+        String base = tempDir.resolve("async.txt").toString();
+        try {
+            long bytes = saver.saveAsync(users(50), base, FileSaverService.SaveMode.SHARDED).get().getBytesWritten();
+            assertEquals(sharded.readManifest(base).getTotalBytes(), bytes);
+        } finally {
+            saver.shutdown();
+        }
+        assertEquals(users(50), sharded.read(base));
+    }
+
+    private static List<User> users(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(User.builder()
+                    .name("Пользователь " + i)
+                    .password("password" + i)
+                    .mail("user" + i + "@test.com")
+                    .build());
+        }
+        return users;
+    }
+}
@@ -0,0 +1,136 @@
+package Client.service.file;
+
+import Client.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты потокового удаления дубликатов")
+class UserDeduplicatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("В памяти: первые вхождения в исходном порядке и число повторов")
+    void testInMemory() throws IOException {
+        List<User> input = input(1000, 3);
+        List<User> output = new ArrayList<>();
+
+        Map<User, Integer> duplicates = new HashMap<>();
+        UserDeduplicator deduplicator = new UserDeduplicator(output::add, 1_000_000, tempDir);
+        input.forEach(deduplicator);
+        UserDeduplicator.Result result = deduplicator.finish(duplicates::put);
+
+        assertEquals(new ArrayList<>(new LinkedHashSet<>(input)), output);
+        assertEquals(input.size(), result.getRecords());
+        assertEquals(1000, result.getDistinct());
+        assertEquals(0, result.getSpilledPartitions());
+        assertEquals(334L, result.getDuplicateUsers());
+        assertEquals(334, duplicates.size());
+        assertEquals(Integer.valueOf(2), duplicates.get(user(0)));
+        assertNull(duplicates.get(user(1)));
+    }
+
+    @Test
+    @DisplayName("При превышении лимита разделы выгружаются на диск, результат тот же")
+    void testSpill() throws IOException {
+        List<User> input = input(20_000, 2);
+        List<User> output = new ArrayList<>();
+
+        Map<User, Integer> duplicates = new HashMap<>();
+        UserDeduplicator deduplicator = new UserDeduplicator(output::add, 1000, tempDir);
+        input.forEach(deduplicator);
+        UserDeduplicator.Result result = deduplicator.finish(duplicates::put);
+
+        assertTrue(result.getSpilledPartitions() > 0);
+        assertEquals(20_000, output.size());
+        assertEquals(new LinkedHashSet<>(input), new LinkedHashSet<>(output));
+        assertEquals(10_000, duplicates.size());
+        assertEquals(Integer.valueOf(2), duplicates.get(user(19_998)));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Повторяющиеся пользователи учитываются в лимите памяти")
+    void testDuplicatesCountTowardLimit() throws IOException {
+        // 600 отпечатков меньше лимита, но вместе с 600 сохраненными повторами лимит превышен
+        List<User> input = input(600, 1);
+        for (int i = 0; i < 600; i++) {
+            input.add(user(i));
+        }
+        List<User> output = new ArrayList<>();
+        Map<User, Integer> duplicates = new HashMap<>();
+
+        UserDeduplicator deduplicator = new UserDeduplicator(output::add, 1000, tempDir);
+        input.forEach(deduplicator);
+        UserDeduplicator.Result result = deduplicator.finish(duplicates::put);
+
+        assertTrue(result.getSpilledPartitions() > 0);
+        assertEquals(600, output.size());
+        assertEquals(600, duplicates.size());
+        assertEquals(Integer.valueOf(3), duplicates.get(user(42)));
+        assertEquals(Integer.valueOf(3), result.getTopDuplicates().get(0).getValue());
+        assertEquals(UserDeduplicator.Result.TOP_SIZE, result.getTopDuplicates().size());
+    }
+
+    @Test
+    @DisplayName("Чтение файла с удалением дубликатов")
+    void testReadDistinct() throws IOException {
+        Path file = tempDir.resolve("users.txt");
+        new FileWriterService().writeToFile(input(100, 4), file.toString());
+        FileReaderService reader = new FileReaderService();
+
+        List<User> users = new ArrayList<>();
+        assertEquals(100, reader.readFromFile(file.toString(), users::add, true));
+        assertEquals(100, users.size());
+        assertEquals(25L, reader.getLastDeduplication().getDuplicateUsers());
+    }
+
+    @Test
+    @DisplayName("Таблица отпечатков хранит счетчики, включая нулевой ключ")
+    void testLongIntMap() {
+        UserDeduplicator.LongIntMap map = new UserDeduplicator.LongIntMap();
+        for (long key = -5000; key < 5000; key++) {
+            map.increment(key * 0x9E3779B97F4A7C15L);
+        }
+        map.increment(0);
+        assertEquals(10_000, map.size());
+        assertEquals(2, map.get(0));
+        assertEquals(1, map.get(17 * 0x9E3779B97F4A7C15L));
+        assertEquals(0, map.get(42));
+    }
+
+    // Каждый every-й пользователь встречается дважды
+    private static List<User> input(int count, int every) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(user(i));
+            if (i % every == 0) {
+                users.add(user(i));
+            }
+        }
+        return users;
+    }
+
+    private static User user(int i) {
+        return User.builder()
+                .name("Пользователь " + i)
+                .password("password" + i)
+                .mail("user" + i + "@test.com")
+                .build();
+    }
+}
@@ -0,0 +1,130 @@
+package Client.service.file;
+
+import Client.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты компактации файлов с дописываниями")
+class UserFileCompactorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final FileSaverService saver = new FileSaverService();
+    private final FileReaderService reader = new FileReaderService();
+    private final UserFileCompactor compactor = new UserFileCompactor();
+
+    @Test
+    @DisplayName("Компактация оставляет последнюю запись для каждого email")
+    void testCompactKeepsLatestState() throws IOException {
+        String path = tempDir.resolve("log.txt").toString();
+        saver.saveToFile(List.of(user("Анна", "first111", "anna@test.com"), user("Борис", "boris123", "boris@test.com")),
+                path, FileSaverService.SaveMode.APPEND_WITH_TIMESTAMP);
+        saver.saveToFile(List.of(user("Анна", "second22", "anna@test.com")),
+                path, FileSaverService.SaveMode.APPEND_WITH_TIMESTAMP);
+
+        UserFileCompactor.Result result = compactor.compact(path, UserFileCompactor.Key.MAIL);
+
+        assertEquals(3, result.getRecordsBefore());
+        assertEquals(2, result.getRecordsAfter());
+        assertTrue(result.getBytesAfter() < result.getBytesBefore());
+        assertEquals(List.of(user("Анна", "second22", "anna@test.com"), user("Борис", "boris123", "boris@test.com")),
+                reader.readFromFile(path));
+        assertFalse(Files.list(tempDir).anyMatch(p -> p.getFileName().toString().startsWith("compact-")));
+    }
+
+    @Test
+    @DisplayName("По умолчанию разные пользователи с одним email сохраняются, удаляются только точные дубликаты")
+    void testDefaultKeyKeepsUsersSharingMail() throws IOException {
+        String path = tempDir.resolve("shared.txt").toString();
+        List<User> users = List.of(user("Анна", "anna1234", "family@test.com"), user("Борис", "boris123", "family@test.com"));
+        saver.saveToFile(users, path, FileSaverService.SaveMode.APPEND);
+        saver.saveToFile(List.of(users.get(0)), path, FileSaverService.SaveMode.APPEND);
+
+        UserFileCompactor.Result result = compactor.compact(path);
+
+        assertEquals(3, result.getRecordsBefore());
+        assertEquals(2, result.getRecordsAfter());
+        assertEquals(users, reader.readFromFile(path));
+    }
+
+    @Test
+    @DisplayName("Маркер контрольной точки отделяет снимок от дописанного хвоста")
+    void testCheckpointMarksTail() throws IOException {
+        for (String name : new String[]{"log.txt", "log.txt.gz"}) {
+            String path = tempDir.resolve(name).toString();
+            saver.saveToFile(List.of(user("Анна", "first111", "anna@test.com")), path, FileSaverService.SaveMode.APPEND);
+            assertNull(compactor.readCheckpoint(path));
+
+            compactor.compact(path);
+            UserFileCompactor.Checkpoint checkpoint = compactor.readCheckpoint(path);
+            assertNotNull(checkpoint);
+            assertEquals(1, checkpoint.getRecords());
+            assertEquals(Files.size(Path.of(path)), checkpoint.getSnapshotBytes());
+
+            saver.saveToFile(List.of(user("Вера", "vera1234", "vera@test.com")), path, FileSaverService.SaveMode.APPEND);
+            assertTrue(Files.size(Path.of(path)) > compactor.readCheckpoint(path).getSnapshotBytes());
+            assertEquals(2, reader.readFromFile(path).size());
+        }
+    }
+
+    @Test
+    @DisplayName("Политика запускает компактацию после асинхронного дописывания")
+    void testPolicyCompactsAfterAppend() throws Exception {
+        String path = tempDir.resolve("auto.txt").toString();
+        saver.setCompactionPolicy(new CompactionPolicy(0, 0.0), UserFileCompactor.Key.MAIL);
+        try {
+            for (int i = 0; i < 5; i++) {
+                saver.saveAsync(List.of(user("Анна", "password" + i, "anna@test.com")), path,
+                        FileSaverService.SaveMode.APPEND).get();
+            }
+        } finally {
+            saver.shutdown();
+        }
+
+        assertNotNull(compactor.readCheckpoint(path));
+        assertEquals(List.of(user("Анна", "password4", "anna@test.com")), reader.readFromFile(path));
+    }
+
+    @Test
+    @DisplayName("Недописанная строка не теряется при компактации и сохраняет права файла")
+    void testUnfinishedLineKeptInTail() throws IOException {
+        Path path = tempDir.resolve("log.txt");
+        saver.saveToFile(List.of(user("Анна", "first111", "anna@test.com")), path.toString(),
+                FileSaverService.SaveMode.APPEND);
+        // Писатель успел записать только начало строки
+        Files.writeString(path, "Вера;vera1234;vera@te", StandardOpenOption.APPEND);
+        boolean posix = Files.getFileAttributeView(path, PosixFileAttributeView.class) != null;
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r-----");
+        if (posix) {
+            Files.setPosixFilePermissions(path, permissions);
+        }
+
+        UserFileCompactor.Result result = compactor.compact(path.toString());
+        Files.writeString(path, "st.com\n", StandardOpenOption.APPEND);
+
+        assertEquals(1, result.getRecordsAfter());
+        assertEquals(List.of(user("Анна", "first111", "anna@test.com"), user("Вера", "vera1234", "vera@test.com")),
+                reader.readFromFile(path.toString()));
+        if (posix) {
+            assertEquals(permissions, Files.getPosixFilePermissions(path));
+        }
+    }
+
+    private static User user(String name, String password, String mail) {
+        return User.builder().name(name).password(password).mail(mail).build();
+    }
+}
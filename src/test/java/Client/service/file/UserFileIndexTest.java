@@ -0,0 +1,110 @@
+package Client.service.file;
+
+import Client.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты индекса строк текстового файла")
+class UserFileIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final FileReaderService reader = new FileReaderService();
+
+    @Test
+    @DisplayName("Чтение записи и диапазона по индексу пропускает комментарии и невалидные строки")
+    void testReadRecordAndRange() throws IOException {
+        Path file = tempDir.resolve("users.txt");
+        StringBuilder content = new StringBuilder("# Файл с пользователями (name;password;mail)\n\n");
+        for (int i = 0; i < 500; i++) {
+            content.append("Пользователь ").append(i).append(";password").append(i)
+                    .append(";user").append(i).append("@test.com\n");
+            if (i % 100 == 0) {
+                content.append("битая строка\n");
+            }
+        }
+        content.append("Последний;password;last@test.com");
+        Files.writeString(file, content);
+        List<User> users = reader.readFromFile(file.toString());
+
+        UserFileIndex index = UserFileIndex.build(file.toString());
+
+        assertEquals(501, index.getCount());
+        assertEquals(Files.size(file), index.getOffset(index.getCount()));
+        assertEquals(users.get(0), reader.readRecord(file.toString(), 0));
+        assertEquals(users.get(250), reader.readRecord(file.toString(), 250));
+        assertEquals(users.get(500), reader.readRecord(file.toString(), 500));
+        assertEquals(users.subList(95, 205), reader.readRange(file.toString(), 95, 205));
+        assertEquals(users, reader.readRange(file.toString(), 0, 501));
+        assertThrows(IndexOutOfBoundsException.class, () -> reader.readRecord(file.toString(), 501));
+    }
+
+    @Test
+    @DisplayName("Сохраненный индекс открывается, устаревший строится заново")
+    void testReopenAndStaleIndex() throws IOException {
+        Path file = tempDir.resolve("users.txt");
+        Files.writeString(file, lines(0, 100));
+        UserFileIndex.build(file.toString());
+
+        UserFileIndex reopened = UserFileIndex.open(file.toString());
+        assertNotNull(reopened);
+        assertEquals(100, reopened.getCount());
+
+        Files.writeString(file, lines(0, 150));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        assertNull(UserFileIndex.open(file.toString()));
+        assertEquals(150, UserFileIndex.openOrBuild(file.toString()).getCount());
+        assertEquals("Пользователь 149", reader.readRecord(file.toString(), 149).getName());
+    }
+
+    @Test
+    @DisplayName("Если индекс не удается сохранить, чтение идет по индексу в памяти")
+    void testUnwritableIndexFallsBackToMemory() throws IOException {
+        Path file = tempDir.resolve("users.txt");
+        Files.writeString(file, lines(0, 100));
+        // На месте временного файла индекса непустой каталог, поэтому записать индекс не получится
+        Path blocker = Path.of(UserFileIndex.indexPath(file.toString()) + ".tmp");
+        Files.createDirectories(blocker.resolve("busy"));
+
+        assertEquals(100, UserFileIndex.openOrBuild(file.toString()).getCount());
+        assertNull(UserFileIndex.open(file.toString()));
+        assertEquals(List.of(reader.readRecord(file.toString(), 10)), reader.readRange(file.toString(), 10, 11));
+    }
+
+    @Test
+    @DisplayName("Диапазоны для параллельной загрузки покрывают все записи")
+    void testSplitRanges() throws IOException {
+        Path file = tempDir.resolve("users.txt");
+        Files.writeString(file, lines(0, 1003));
+        UserFileIndex index = UserFileIndex.openOrBuild(file.toString());
+
+        long[] ranges = index.splitRanges(4);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ranges[i + 1] - ranges[i] >= 250);
+            reader.readRange(index, file.toString(), ranges[i], ranges[i + 1], users::add);
+        }
+        assertEquals(reader.readFromFile(file.toString()), users);
+        assertThrows(IllegalArgumentException.class, () -> UserFileIndex.build(file + ".gz"));
+    }
+
+    private static String lines(int from, int to) {
+        StringBuilder content = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            content.append("Пользователь ").append(i).append(";password").append(i)
+                    .append(";user").append(i).append("@test.com\n");
+        }
+        return content.toString();
+    }
+}
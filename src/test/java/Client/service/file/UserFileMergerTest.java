@@ -0,0 +1,105 @@
+package Client.service.file;
+
+import Client.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты объединения файлов пользователей")
+class UserFileMergerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final UserFileMerger merger = new UserFileMerger();
+    private final FileReaderService reader = new FileReaderService();
+
+    @Test
+    @DisplayName("Склейка оставляет один заголовок и все записи по порядку")
+    void testConcat() throws IOException {
+        Path first = tempDir.resolve("a.txt");
+        Path second = tempDir.resolve("b.txt");
+        Files.writeString(first, "# заголовок\n\nАнна;anna1234;anna@test.com\nБорис;boris123;boris@test.com", StandardCharsets.UTF_8);
+        Files.writeString(second, "# другой заголовок\n# 2024-01-01 10:00:00\nВера;vera1234;vera@test.com\n", StandardCharsets.UTF_8);
+        Path output = tempDir.resolve("all.txt");
+
+        merger.concat(List.of(first.toString(), second.toString()), output.toString());
+
+        List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        assertEquals(List.of(FileWriterService.FILE_HEADER, "Анна;anna1234;anna@test.com",
+                "Борис;boris123;boris@test.com", "Вера;vera1234;vera@test.com"), lines);
+    }
+
+    @Test
+    @DisplayName("Сжатые файлы склеиваются по gzip-членам")
+    void testConcatGzip() throws IOException {
+        FileWriterService writer = new FileWriterService();
+        String first = tempDir.resolve("a.txt.gz").toString();
+        String second = tempDir.resolve("b.txt.gz").toString();
+        writer.writeToFile(users(0, 100), first);
+        writer.writeToFile(users(100, 200), second);
+        String output = tempDir.resolve("all.txt.gz").toString();
+
+        merger.concat(List.of(first, second), output);
+
+        assertEquals(users(0, 200), reader.readFromFile(output));
+        assertThrows(IllegalArgumentException.class,
+                () -> merger.concat(List.of(first), tempDir.resolve("plain.txt").toString()));
+    }
+
+    @Test
+    @DisplayName("Слияние отсортированных файлов дает отсортированный результат")
+    void testMergeSorted() throws IOException {
+        List<User> all = users(0, 300);
+        List<List<User>> parts = List.of(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        for (int i = 0; i < all.size(); i++) {
+            parts.get(i % 3).add(all.get(i));
+        }
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < parts.size(); i++) {
+            List<User> part = new ArrayList<>(parts.get(i));
+            part.sort(UserFileMerger.NAME_PASSWORD_MAIL);
+            String path = tempDir.resolve("part" + i + ".txt").toString();
+            new FileWriterService().writeToFile(part, path);
+            inputs.add(path);
+        }
+        String output = tempDir.resolve("merged.txt").toString();
+
+        assertEquals(300, merger.mergeSorted(inputs, output));
+
+        List<User> expected = new ArrayList<>(all);
+        expected.sort(UserFileMerger.NAME_PASSWORD_MAIL);
+        assertEquals(expected, reader.readFromFile(output));
+    }
+
+    @Test
+    @DisplayName("Неотсортированный входной файл обнаруживается")
+    void testMergeRejectsUnsortedInput() throws IOException {
+        Path input = tempDir.resolve("unsorted.txt");
+        Files.writeString(input, "Борис;boris123;boris@test.com\nАнна;anna1234;anna@test.com\n", StandardCharsets.UTF_8);
+
+        assertThrows(IOException.class,
+                () -> merger.mergeSorted(List.of(input.toString()), tempDir.resolve("out.txt").toString()));
+    }
+
+    private static List<User> users(int from, int to) {
+        List<User> users = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            users.add(User.builder()
+                    .name("Пользователь " + i)
+                    .password("password" + i)
+                    .mail("user" + i + "@test.com")
+                    .build());
+        }
+        return users;
+    }
+}
@@ -0,0 +1,91 @@
+package Client.service.file;
+
+import Client.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты потоковой записи строк пользователей")
+class UserFileWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Не-ASCII символы и суррогатные пары кодируются как String.getBytes")
+    void testNonAsciiRoundTrip() throws IOException {
+        List<User> users = List.of(
+                user("Анна Каренина", "пароль123", "anna@test.com"),
+                user("山田太郎", "密码密码密码", "yamada@test.com"),
+                user("Ёжик 😀", "pass🔑word", "smile@test.com"));
+        Path path = tempDir.resolve("users.txt");
+
+        try (UserFileWriter writer = UserFileWriter.open(path, false)) {
+            for (User user : users) {
+                writer.writeUser(user);
+            }
+        }
+
+        assertArrayEquals(expectedBytes(users), Files.readAllBytes(path));
+        assertEquals(users, new FileReaderService().readFromFile(path.toString()));
+    }
+
+    @Test
+    @DisplayName("Одиночный суррогат записывается как '?'")
+    void testLoneSurrogate() throws IOException {
+        User user = user("Имя \uD83D", "password1", "lone@test.com");
+        Path path = tempDir.resolve("lone.txt");
+
+        try (UserFileWriter writer = UserFileWriter.open(path, false)) {
+            writer.writeUser(user);
+        }
+
+        assertArrayEquals(expectedBytes(List.of(user)), Files.readAllBytes(path));
+    }
+
+    @Test
+    @DisplayName("Строка размером ровно с буфер записывается целиком")
+    void testLineExactlyBufferSize() throws IOException {
+        User user = user("Пользователь 😀", "password1", "user@test.com");
+        List<User> users = List.of(user, user("Анна", "password2", "anna@test.com"), user);
+        Path path = tempDir.resolve("exact.txt");
+
+        // Буфер равен верхней границе строки: каждая запись сбрасывает предыдущую
+        try (UserFileWriter writer = UserFileWriter.open(path, false, UserFileWriter.maxEncodedSize(user))) {
+            for (User each : users) {
+                writer.writeUser(each);
+            }
+        }
+        assertArrayEquals(expectedBytes(users), Files.readAllBytes(path));
+
+        byte[] line = UserFileWriter.encodeLine("Иван;password3;ivan@test.com");
+        try (UserFileWriter writer = UserFileWriter.open(path, false, line.length)) {
+            writer.writeRaw(line);
+            writer.writeRaw(line);
+            assertEquals(2L * line.length, writer.getBytesWritten());
+        }
+        assertEquals(2, new FileReaderService().readFromFile(path.toString()).size());
+    }
+
+    private static byte[] expectedBytes(List<User> users) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (User user : users) {
+            out.writeBytes((user.getName() + ";" + user.getPassword() + ";" + user.getMail() + System.lineSeparator())
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+
+    private static User user(String name, String password, String mail) {
+        return User.builder().name(name).password(password).mail(mail).build();
+    }
+}
@@ -0,0 +1,87 @@
+package Client.service.file;
+
+import Client.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты класса UserLineParser")
+class UserLineParserTest {
+
+    private UserLineParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new UserLineParser();
+    }
+
+    @Test
+    @DisplayName("Корректная строка разбирается с обрезкой пробелов")
+    void testParsesValidLine() {
+        assertEquals(UserLineParser.OK, parser.parse("  Анна ; anna1234 ;anna@test.com  "));
+        assertEquals(UserLineParser.OK, parser.validate());
+
+        User user = parser.toUser();
+        assertEquals("Анна", user.getName());
+        assertEquals("anna1234", user.getPassword());
+        assertEquals("anna@test.com", user.getMail());
+    }
+
+    @Test
+    @DisplayName("Пустые строки и комментарии пропускаются")
+    void testSkipsBlankAndCommentLines() {
+        assertEquals(UserLineParser.SKIP, parser.parse(""));
+        assertEquals(UserLineParser.SKIP, parser.parse("   \t"));
+        assertEquals(UserLineParser.SKIP, parser.parse("  # комментарий"));
+    }
+
+    @Test
+    @DisplayName("Коды ошибок совпадают с правилами String.split и UserValidator")
+    void testErrorCodes() {
+        assertEquals(UserLineParser.ERROR_FORMAT, parser.parse("Анна;anna1234"));
+        assertEquals(UserLineParser.ERROR_FORMAT, parser.parse("Анна;anna1234;"));
+        assertEquals(UserLineParser.ERROR_FORMAT, parser.parse("Анна;anna1234;a@b.cd;extra"));
+        assertEquals(UserLineParser.ERROR_NAME, parser.parse("А;anna1234;a@b.cd"));
+        assertEquals(UserLineParser.ERROR_PASSWORD, parser.parse("Анна; ;a@b.cd"));
+        assertEquals(UserLineParser.ERROR_MAIL, parser.parse("Анна;anna1234; ;"));
+
+        assertEquals(UserLineParser.OK, parser.parse("Анна;anna1234;a@b.cd;;"));
+        assertEquals(UserLineParser.OK, parser.parse("Анна;anna1234;invalid"));
+        assertEquals(UserLineParser.ERROR_MAIL, parser.validate());
+    }
+
+    @Test
+    @DisplayName("Разбор байтов дает тот же результат, что и разбор строк")
+    void testByteParsingMatchesCharParsing() {
+        List<String> lines = List.of(
+                "Анна;anna1234;anna@test.com",
+                " Ольга ;olga1234 ; olga@test.com ;",
+                "Я;short;bad",
+                "# comment",
+                "Екатерина;" + "x".repeat(101) + ";kate@test.com",
+                "А".repeat(50) + ";password;a@b.cd",
+                "А".repeat(51) + ";password;a@b.cd");
+
+        UserLineParser byteParser = new UserLineParser();
+        for (String line : lines) {
+            byte[] bytes = ("xx" + line + "yy").getBytes(StandardCharsets.UTF_8);
+            int from = 2;
+            int to = bytes.length - 2;
+
+            int charStatus = parser.parse(line);
+            int byteStatus = byteParser.parse(bytes, from, to);
+            if (charStatus == UserLineParser.OK) charStatus = parser.validate();
+            if (byteStatus == UserLineParser.OK) byteStatus = byteParser.validate();
+
+            assertEquals(charStatus, byteStatus, line);
+            if (charStatus == UserLineParser.OK) {
+                assertEquals(parser.toUser(), byteParser.toUser());
+            }
+        }
+    }
+}
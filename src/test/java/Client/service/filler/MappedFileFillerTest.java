@@ -0,0 +1,43 @@
+package Client.service.filler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import Client.model.User;
+import Client.service.file.MappedFileLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class MappedFileFillerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final MappedFileFiller filler = new MappedFileFiller(new MappedFileLoader(8));
+
+    @Test
+    public void testFillFromPathWithNullPath() {
+        assertTrue(filler.fillFromPath(null).isEmpty());
+    }
+
+    @Test
+    public void testFillFromPathWithNonexistentFile() {
+        assertTrue(filler.fillFromPath(tempDir.resolve("missing.txt").toString()).isEmpty());
+    }
+
+    @Test
+    public void testFillFromSmallFile() throws IOException {
+        Path path = tempDir.resolve("small.txt");
+        Files.writeString(path, "a\n");
+        assertTrue(filler.fillFromPath(path.toString()).isEmpty());
+
+        Files.writeString(path, "Анна;password1;anna@test.com\nплохая строка\n");
+        List<User> users = filler.fillFromPath(path.toString());
+        assertEquals(1, users.size());
+        assertEquals("anna@test.com", users.get(0).getMail());
+    }
+}
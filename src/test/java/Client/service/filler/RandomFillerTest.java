@@ -1,6 +1,7 @@
 package Client.service.filler;
 
 import Client.model.User;
+import Client.service.validation.UserValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import java.util.List;
@@ -58,4 +59,27 @@ public class RandomFillerTest {
             assertTrue(user.getMail().contains("@"));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFillBulkIsDeterministicForAnyParallelism() {
+        int count = 200_000;
+        List<User> single = randomFiller.fillBulk(count, 50, 1);
+        List<User> parallel = randomFiller.fillBulk(count, 50, 4);
+
+        assertEquals(count, single.size());
+        assertEquals(single, parallel);
+        assertNotEquals(single, randomFiller.fillBulk(count, 51, 4));
+    }
+
+    @Test
+    public void testFillBulkGeneratesValidUsers() {
+        List<User> users = randomFiller.fillBulk(1000, 7);
+
+        assertEquals(1000, users.size());
+        for (User user : users) {
+            assertNotNull(user);
+            assertTrue(UserValidator.isValidUser(user.getName(), user.getPassword(), user.getMail()));
+        }
+        assertTrue(randomFiller.fillBulk(0, 7).isEmpty());
+    }
+}
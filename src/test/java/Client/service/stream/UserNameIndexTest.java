@@ -0,0 +1,77 @@
+package Client.service.stream;
+
+import Client.collection.CustomUserCollection;
+import Client.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты класса UserNameIndex")
+class UserNameIndexTest {
+
+    private CustomUserCollection collection;
+    private UserNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        collection = new CustomUserCollection();
+        collection.add(user("Мария", "maria@test.com"));
+        collection.add(user("Алексей", "alex@test.com"));
+        collection.add(user("Анна", "anna@test.com"));
+        collection.add(user("Алексей", "alex2@test.com"));
+        collection.add(user("Андрей", "andrey@test.com"));
+        index = UserNameIndex.build(collection);
+    }
+
+    @Test
+    @DisplayName("Точный поиск возвращает всех пользователей с именем в исходном порядке")
+    void testFindByName() {
+        List<String> mails = index.findByName("Алексей").stream()
+                .map(User::getMail)
+                .collect(Collectors.toList());
+
+        assertEquals(List.of("alex@test.com", "alex2@test.com"), mails);
+        assertTrue(index.findByName("Ольга").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Поиск по префиксу находит все совпадения")
+    void testFindByPrefix() {
+        assertEquals(4, index.findByPrefix("А").size());
+        assertEquals(2, index.findByPrefix("Ал").size());
+        assertEquals(1, index.countByPrefix("Анн"));
+        assertEquals(0, index.countByPrefix("Я"));
+        assertEquals(5, index.countByPrefix(""));
+    }
+
+    @Test
+    @DisplayName("Поиск по диапазону исключает верхнюю границу")
+    void testFindByRange() {
+        List<String> names = index.findByRange("Алексей", "Анна").stream()
+                .map(User::getName)
+                .collect(Collectors.toList());
+
+        assertEquals(List.of("Алексей", "Алексей", "Андрей"), names);
+        assertTrue(index.findByRange("Я", "А").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Результаты совпадают с полным перебором")
+    void testMatchesFilter() {
+        for (String prefix : List.of("А", "Ан", "М", "Мария", "Б")) {
+            assertEquals(
+                    collection.filter(u -> u.getName().startsWith(prefix)).size(),
+                    index.findByPrefix(prefix).size(),
+                    "префикс " + prefix);
+        }
+    }
+
+    private static User user(String name, String mail) {
+        return User.builder().name(name).password("secret123").mail(mail).build();
+    }
+}
@@ -0,0 +1,72 @@
+package model;
+
+import Client.model.CompactUser;
+import Client.model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit-тесты для класса CompactUser.
+ */
+@DisplayName("Тесты класса CompactUser")
+class CompactUserTest {
+
+    @Test
+    @DisplayName("Геттеры декодируют исходные значения")
+    void testGettersDecodeFields() {
+        CompactUser user = CompactUser.of("Иван Иванов", "secure123", "ivan@example.com");
+
+        assertEquals("Иван Иванов", user.getName());
+        assertEquals("secure123", user.getPassword());
+        assertEquals("ivan@example.com", user.getMail());
+        assertEquals("Иван Иванов".getBytes(java.nio.charset.StandardCharsets.UTF_8).length
+                + "secure123".length() + "ivan@example.com".length(), user.getEncodedSize());
+    }
+
+    @Test
+    @DisplayName("of выбрасывает исключение для невалидных данных")
+    void testOfRejectsInvalidData() {
+        assertThrows(IllegalArgumentException.class, () -> CompactUser.of("А", "secure123", "a@b.cd"));
+        assertThrows(IllegalArgumentException.class, () -> CompactUser.of("Анна", "123", "a@b.cd"));
+        assertThrows(IllegalArgumentException.class, () -> CompactUser.of("Анна", "secure123", "invalid"));
+    }
+
+    @Test
+    @DisplayName("Преобразование в User и обратно сохраняет данные")
+    void testRoundTripWithUser() {
+        User user = User.builder().name("Ольга").password("olga123").mail("olga@test.com").build();
+
+        CompactUser compact = CompactUser.from(user);
+
+        assertEquals(user, compact.toUser());
+        assertEquals(CompactUser.of("Ольга", "olga123", "olga@test.com"), compact);
+    }
+
+    @Test
+    @DisplayName("equals и hashCode учитывают границы полей")
+    void testEqualsRespectsFieldBoundaries() {
+        CompactUser first = CompactUser.of("Анна", "abcdefg", "anna@test.com");
+        CompactUser second = CompactUser.of("Аннаa", "bcdefg", "anna@test.com");
+        CompactUser copy = CompactUser.of("Анна", "abcdefg", "anna@test.com");
+
+        assertNotEquals(first, second);
+        assertEquals(first, copy);
+        assertEquals(first.hashCode(), copy.hashCode());
+    }
+
+    @Test
+    @DisplayName("compareTo согласован с порядком строк")
+    void testCompareToMatchesStringOrder() {
+        CompactUser alexey = CompactUser.of("Алексей", "secret1", "a@test.com");
+        CompactUser anna = CompactUser.of("Анна", "secret1", "a@test.com");
+        CompactUser latin = CompactUser.of("Zed", "secret1", "a@test.com");
+
+        assertTrue(alexey.compareTo(anna) < 0);
+        assertTrue(latin.compareTo(alexey) < 0);
+        assertEquals(0, anna.compareTo(CompactUser.of("Анна", "secret1", "a@test.com")));
+        assertTrue(CompactUser.of("Анна", "secret1", "a@test.com")
+                .compareTo(CompactUser.of("Анна", "secret2", "a@test.com")) < 0);
+    }
+}
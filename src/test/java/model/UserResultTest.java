@@ -0,0 +1,84 @@
+package model;
+
+import Client.model.User;
+import Client.model.UserResult;
+import Client.service.validation.BatchValidationResult;
+import Client.service.validation.UserValidator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты фабрик User.tryCreate и User.fromBatch.
+ */
+@DisplayName("Тесты класса UserResult")
+class UserResultTest {
+
+    private static final String VALID_NAME = "Иван Иванов";
+    private static final String VALID_PASSWORD = "secure123";
+    private static final String VALID_MAIL = "ivan@example.com";
+
+    @Test
+    @DisplayName("Валидные данные: пользователь совпадает с созданным через Builder")
+    void testSuccess() {
+        UserResult result = User.tryCreate(VALID_NAME, VALID_PASSWORD, VALID_MAIL);
+
+        assertTrue(result.isValid());
+        assertEquals(BatchValidationResult.OK, result.getErrorCode());
+        assertNull(result.getMessage());
+        assertEquals(User.builder().name(VALID_NAME).password(VALID_PASSWORD).mail(VALID_MAIL).build(),
+                result.getUser());
+    }
+
+    @Test
+    @DisplayName("Невалидные данные: код первой ошибки и сообщение как у Builder, без исключения")
+    void testFailure() {
+        String[][] cases = {
+                {"", VALID_PASSWORD, VALID_MAIL},
+                {"И", "123", VALID_MAIL},
+                {VALID_NAME, "123", VALID_MAIL},
+                {VALID_NAME, VALID_PASSWORD, ""},
+                {VALID_NAME, VALID_PASSWORD, "invalid-email"},
+        };
+        for (String[] fields : cases) {
+            UserResult result = User.tryCreate(fields[0], fields[1], fields[2]);
+            assertFalse(result.isValid());
+            assertNull(result.getUser());
+            assertEquals(UserValidator.errorCode(fields[0], fields[1], fields[2]), result.getErrorCode());
+
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> User.builder().name(fields[0]).password(fields[1]).mail(fields[2]).build());
+            assertEquals(exception.getMessage(), result.getMessage());
+            assertThrows(IllegalArgumentException.class, result::orElseThrow);
+        }
+        assertTrue(User.tryCreate(VALID_NAME, VALID_PASSWORD, "bad@mail").getMessage().contains("bad@mail"));
+    }
+
+    @Test
+    @DisplayName("fromBatch создает пользователей только для валидных строк пакета")
+    void testFromBatch() {
+        String[] names = {VALID_NAME, "И"};
+        String[] passwords = {VALID_PASSWORD, VALID_PASSWORD};
+        String[] mails = {VALID_MAIL, VALID_MAIL};
+        BatchValidationResult batch = UserValidator.validateBatch(names, passwords, mails);
+
+        assertEquals(User.tryCreate(VALID_NAME, VALID_PASSWORD, VALID_MAIL).getUser(), User.fromBatch(batch, 0));
+        assertThrows(IllegalArgumentException.class, () -> User.fromBatch(batch, 1));
+    }
+
+    @Test
+    @DisplayName("fromBatch не видит изменений массивов после проверки")
+    void testFromBatchUsesValidatedValues() {
+        String[] names = {VALID_NAME};
+        String[] passwords = {VALID_PASSWORD};
+        String[] mails = {VALID_MAIL};
+        BatchValidationResult batch = UserValidator.validateBatch(names, passwords, mails);
+        names[0] = "";
+        mails[0] = "invalid-email";
+
+        User user = User.fromBatch(batch, 0);
+        assertEquals(VALID_NAME, user.getName());
+        assertEquals(VALID_MAIL, user.getMail());
+    }
+}
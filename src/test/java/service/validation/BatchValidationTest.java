@@ -0,0 +1,104 @@
+package service.validation;
+
+import Client.service.validation.BatchValidationResult;
+import Client.service.validation.UserValidator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Тесты пакетной проверки UserValidator.validateBatch")
+class BatchValidationTest {
+
+    @Test
+    @DisplayName("Битовая карта и коды ошибок соответствуют построчной проверке")
+    void testCodesAndBitmap() {
+        String[] names = {"Иван", "", "И", "Анна", "Мария", "Петр"};
+        String[] passwords = {"password1", "password2", "password3", "123", "password5", "password6"};
+        String[] mails = {"ivan@test.com", "a@test.com", "b@test.com", "anna@test.com", "invalid", "petr@test.com"};
+
+        BatchValidationResult result = UserValidator.validateBatch(names, passwords, mails);
+
+        assertEquals(6, result.size());
+        assertEquals(BatchValidationResult.OK, result.getErrorCode(0));
+        assertEquals(BatchValidationResult.NAME_EMPTY, result.getErrorCode(1));
+        assertEquals(BatchValidationResult.NAME_TOO_SHORT, result.getErrorCode(2));
+        assertEquals(BatchValidationResult.PASSWORD_TOO_SHORT, result.getErrorCode(3));
+        assertEquals(BatchValidationResult.MAIL_FORMAT, result.getErrorCode(4));
+
+        BitSet expected = new BitSet();
+        expected.set(0);
+        expected.set(5);
+        assertEquals(expected, result.getValidRows());
+        assertEquals(2, result.getValidCount());
+        assertEquals(1, result.firstInvalid());
+        assertFalse(result.isAllValid());
+        for (int i = 0; i < names.length; i++) {
+            assertEquals(UserValidator.isValidUser(names[i], passwords[i], mails[i]), result.isValid(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Сообщения строятся по запросу и совпадают с сообщениями валидатора")
+    void testLazyMessages() {
+        String[] names = {"Иван", "Анна", "Петр"};
+        String[] passwords = {"password1", "", "password3"};
+        String[] mails = {"ivan@test.com", "anna@test.com", "petr@test"};
+
+        BatchValidationResult result = UserValidator.validateBatch(names, passwords, mails);
+
+        assertNull(result.getMessage(0));
+        assertEquals(UserValidator.getPasswordErrorMessage(""), result.getMessage(1));
+        assertEquals(UserValidator.getMailErrorMessage("petr@test"), result.getMessage(2));
+        assertTrue(result.getMessage(2).contains("petr@test"));
+    }
+
+    @Test
+    @DisplayName("Пустой и полностью валидный пакеты")
+    void testEmptyAndAllValid() {
+        BatchValidationResult empty = UserValidator.validateBatch(new String[0], new String[0], new String[0]);
+        assertEquals(0, empty.size());
+        assertTrue(empty.isAllValid());
+        assertEquals(-1, empty.firstInvalid());
+
+        int size = 130;
+        String[] names = new String[size];
+        String[] passwords = new String[size];
+        String[] mails = new String[size];
+        for (int i = 0; i < size; i++) {
+            names[i] = "User" + i;
+            passwords[i] = "password" + i;
+            mails[i] = "user" + i + "@test.com";
+        }
+        BatchValidationResult result = UserValidator.validateBatch(names, passwords, mails);
+        assertTrue(result.isAllValid());
+        assertEquals(-1, result.firstInvalid());
+    }
+
+    @Test
+    @DisplayName("Параллельная проверка дает тот же результат, что и последовательная")
+    void testParallelMatchesSequential() {
+        Random random = new Random(47);
+        int size = 50_000;
+        String[] names = new String[size];
+        String[] passwords = new String[size];
+        String[] mails = new String[size];
+        for (int i = 0; i < size; i++) {
+            names[i] = random.nextInt(20) == 0 ? "x" : "User" + i;
+            passwords[i] = random.nextInt(20) == 0 ? "123" : "password" + i;
+            mails[i] = random.nextInt(20) == 0 ? "user" + i + "@test" : "user" + i + "@test.com";
+        }
+
+        BatchValidationResult sequential = UserValidator.validateBatch(names, passwords, mails, size, false);
+        BatchValidationResult parallel = UserValidator.validateBatch(names, passwords, mails, size, true);
+
+        assertEquals(sequential.getValidRows(), parallel.getValidRows());
+        for (int i = 0; i < size; i++) {
+            assertEquals(sequential.getErrorCode(i), parallel.getErrorCode(i));
+        }
+        assertEquals(sequential.firstInvalid(), parallel.firstInvalid());
+    }
+}
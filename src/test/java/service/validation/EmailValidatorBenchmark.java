@@ -0,0 +1,48 @@
+package service.validation;
+
+import Client.service.validation.EmailValidator;
+
+import java.util.Random;
+
+// Сравнение скорости EmailValidator и регулярного выражения; аргумент — число адресов
+public class EmailValidatorBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] mails = generate(count);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            int regexValid = 0;
+            for (String mail : mails) {
+                if (EmailValidatorTest.EMAIL_PATTERN.matcher(mail).matches()) regexValid++;
+            }
+            long regexNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int dfaValid = 0;
+            for (String mail : mails) {
+                if (EmailValidator.matches(mail)) dfaValid++;
+            }
+            long dfaNanos = System.nanoTime() - start;
+
+            System.out.printf("Раунд %d: regex %d мс, автомат %d мс, ускорение x%.1f (валидных %d / %d)%n",
+                    round, regexNanos / 1_000_000, dfaNanos / 1_000_000,
+                    regexNanos / (double) Math.max(1, dfaNanos), regexValid, dfaValid);
+        }
+    }
+
+    private static String[] generate(int count) {
+        Random random = new Random(1);
+        String[] domains = {"gmail.com", "mail.ru", "yandex.ru", "example.org"};
+        String[] mails = new String[count];
+        for (int i = 0; i < count; i++) {
+            String mail = "user." + random.nextInt(1_000_000) + "@" + domains[random.nextInt(domains.length)];
+            // Каждый десятый адрес испорчен
+            mails[i] = i % 10 == 0 ? mail.replace('@', '#') : mail;
+        }
+        return mails;
+    }
+}
@@ -0,0 +1,83 @@
+package service.validation;
+
+import Client.service.validation.EmailValidator;
+import Client.service.validation.UserValidator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Дифференциальные тесты EmailValidator: результат должен совпадать с регулярным выражением.
+ */
+@DisplayName("Тесты класса EmailValidator")
+class EmailValidatorTest {
+
+    static final Pattern EMAIL_PATTERN =
+            Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+
+    // Символы, на которых различаются состояния автомата, плюс пробельные и не-ASCII
+    private static final String ALPHABET = "aZz09-._+@@..  \t\nЯé";
+
+    @Test
+    @DisplayName("Граничные случаи совпадают с регулярным выражением")
+    void testEdgeCases() {
+        String[] cases = {
+                "", "@", "a@", "@b.cd", "a@b.cd", "a@b.c", "a@.cd", "a@..cd", "a@b..cd", "a@b.cd.",
+                "a@b.c1", "a@b.1cd", "a@b-.cd", "a@-.cd", "a@b.cd\n", "a@b.cD", "a+b_c.d-e@x.y.zz",
+                "a@@b.cd", "a@b@c.de", " a@b.cd", "a@b.cd ", "a@b.-cd", "a@b.cd-", ".@..aa", "я@b.cd",
+                "invalid..email@test.com", "invalid@test..com"
+        };
+        for (String mail : cases) {
+            assertEquals(EMAIL_PATTERN.matcher(mail).matches(), EmailValidator.matches(mail), mail);
+        }
+    }
+
+    @Test
+    @DisplayName("Случайные строки: автомат и регулярное выражение дают одинаковый результат")
+    void testRandomStringsMatchRegex() {
+        Random random = new Random(46);
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder mail = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int j = 0; j < length; j++) {
+                mail.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            String value = mail.toString();
+            assertEquals(EMAIL_PATTERN.matcher(value).matches(), EmailValidator.matches(value), value);
+        }
+    }
+
+    @Test
+    @DisplayName("Мутации валидных адресов: автомат и регулярное выражение дают одинаковый результат")
+    void testMutatedValidMailsMatchRegex() {
+        Random random = new Random(4646);
+        String[] seeds = {"user@example.com", "first.last+tag@sub.domain.org", "a@b.cd", "x_y@mail-1.ru"};
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder mail = new StringBuilder(seeds[random.nextInt(seeds.length)]);
+            int mutations = 1 + random.nextInt(3);
+            for (int j = 0; j < mutations && mail.length() > 0; j++) {
+                int position = random.nextInt(mail.length());
+                char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+                switch (random.nextInt(3)) {
+                    case 0 -> mail.setCharAt(position, c);
+                    case 1 -> mail.insert(position, c);
+                    default -> mail.deleteCharAt(position);
+                }
+            }
+            String value = mail.toString();
+            assertEquals(EMAIL_PATTERN.matcher(value).matches(), EmailValidator.matches(value), value);
+        }
+    }
+
+    @Test
+    @DisplayName("isValidMail сохраняет проверки на null и длину")
+    void testIsValidMailKeepsLengthAndNullChecks() {
+        assertFalse(UserValidator.isValidMail(null));
+        assertTrue(UserValidator.isValidMail("a".repeat(94) + "@b.com"));
+        assertFalse(UserValidator.isValidMail("a".repeat(95) + "@b.com"));
+    }
+}
@@ -0,0 +1,108 @@
+package service.validation;
+
+import Client.service.validation.BatchValidationResult;
+import Client.service.validation.UserValidator;
+import Client.service.validation.ValidationCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты ValidationCache: результаты должны совпадать с валидатором без кэша.
+ */
+@DisplayName("Тесты класса ValidationCache")
+class ValidationCacheTest {
+
+    private static final String ALPHABET = "aZz09-._+@@..  \tЯé";
+    private static final String[] DOMAINS = {"gmail.com", "mail.ru", "test..com", "x.c", "a@b.cd", ".ru", "ya.ru"};
+
+    @Test
+    @DisplayName("Граничные случаи совпадают с UserValidator")
+    void testEdgeCases() {
+        ValidationCache cache = new ValidationCache();
+        String[] mails = {
+                null, "", "  ", "@", "a@", "@b.cd", "a@b.cd", "a@b.c", "a@.cd", "a@b..cd", "a@@b.cd", "a@b@c.de",
+                " a@b.cd", "я@b.cd", "invalid..email@test.com", "user@mail.ru", "user@mail.ru",
+                "a".repeat(95) + "@b.cd", "a".repeat(96) + "@b.cd"
+        };
+        for (int repeat = 0; repeat < 2; repeat++) {
+            for (String mail : mails) {
+                assertEquals(UserValidator.isValidMail(mail), cache.isValidMail(mail), String.valueOf(mail));
+                assertEquals(UserValidator.errorCode("Иван", "password", mail),
+                        cache.errorCode("Иван", "password", mail), String.valueOf(mail));
+            }
+        }
+        String[] names = {null, "", " ", "И", "Иван", "a".repeat(50), "a".repeat(51)};
+        for (String name : names) {
+            assertEquals(UserValidator.isValidName(name), cache.isValidName(name), String.valueOf(name));
+            assertEquals(UserValidator.errorCode(name, "password", "a@b.cd"),
+                    cache.errorCode(name, "password", "a@b.cd"), String.valueOf(name));
+        }
+    }
+
+    @Test
+    @DisplayName("Слишком длинные имена и адреса проверяются без кэша")
+    void testLongValuesNotCached() {
+        ValidationCache cache = new ValidationCache();
+        String name = "a".repeat(UserValidator.MAX_NAME_LENGTH + 1);
+        String mail = "user@" + "b".repeat(UserValidator.MAX_MAIL_LENGTH) + ".cd";
+        for (int repeat = 0; repeat < 2; repeat++) {
+            assertFalse(cache.isValidName(name));
+            assertFalse(cache.isValidMail(mail));
+        }
+        assertEquals(0, cache.getHits() + cache.getMisses());
+    }
+
+    @Test
+    @DisplayName("Случайные адреса: кэш с вытеснением дает тот же результат")
+    void testRandomWithEviction() {
+        ValidationCache cache = new ValidationCache(8);
+        Random random = new Random(49);
+        for (int i = 0; i < 50_000; i++) {
+            String mail = randomString(random, 6) + "@" + (random.nextBoolean()
+                    ? DOMAINS[random.nextInt(DOMAINS.length)]
+                    : randomString(random, 8));
+            assertEquals(UserValidator.isValidMail(mail), cache.isValidMail(mail), mail);
+        }
+        assertTrue(cache.getHits() > 0);
+        assertTrue(cache.getMisses() > 0);
+    }
+
+    @Test
+    @DisplayName("Повторяющиеся домены и имена попадают в кэш, в том числе из нескольких потоков")
+    void testHitsAndConcurrency() {
+        ValidationCache cache = new ValidationCache();
+        int size = 20_000;
+        String[] names = new String[size];
+        String[] passwords = new String[size];
+        String[] mails = new String[size];
+        for (int i = 0; i < size; i++) {
+            names[i] = i % 100 == 0 ? "x" : "User" + (i % 10);
+            passwords[i] = "password" + i;
+            mails[i] = "user" + i + "@" + DOMAINS[i % DOMAINS.length];
+        }
+
+        BatchValidationResult expected = UserValidator.validateBatch(names, passwords, mails, size, false);
+        BatchValidationResult cached = UserValidator.validateBatch(names, passwords, mails, size, true, cache);
+        assertEquals(expected.getValidRows(), cached.getValidRows());
+        IntStream.range(0, size).parallel().forEach(i ->
+                assertEquals(expected.getErrorCode(i), cache.errorCode(names[i], passwords[i], mails[i])));
+
+        assertTrue(cache.getHitRate() > 0.9);
+        cache.clear();
+        assertTrue(cache.isValidMail("user@gmail.com"));
+    }
+
+    private static String randomString(Random random, int maxLength) {
+        StringBuilder builder = new StringBuilder();
+        int length = random.nextInt(maxLength + 1);
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return builder.toString();
+    }
+}